@@ -0,0 +1,132 @@
+package com.capacitorjs.plugins.camera;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+
+/**
+ * A pool of mutable bitmaps bucketed by allocation size, reused as
+ * BitmapFactory.Options.inBitmap when decoding and as the destination of the
+ * transforms in ImageUtils. The pool holds at most maxBytes worth of bitmaps and
+ * evicts the least recently released ones first.
+ */
+public class BitmapPool {
+
+    private final SizeBucketPool<Bitmap> pool;
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    public BitmapPool(long maxBytes) {
+        this.pool = new SizeBucketPool<Bitmap>(maxBytes) {
+            @Override
+            int getByteCount(Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+
+            @Override
+            void onRemoved(Bitmap bitmap) {
+                bitmap.recycle();
+            }
+        };
+    }
+
+    /**
+     * Get a bitmap of the given size and config, reusing a pooled one if possible.
+     * The returned bitmap is cleared and owned by the caller until it is released.
+     * @param width
+     * @param height
+     * @param config
+     * @return
+     */
+    public Bitmap get(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = pool.take(getByteCount(width, height, config));
+        if (bitmap != null) {
+            try {
+                bitmap.reconfigure(width, height, config);
+                bitmap.eraseColor(Color.TRANSPARENT);
+                countRequest(true);
+                return bitmap;
+            } catch (IllegalArgumentException ex) {
+                bitmap.recycle();
+            }
+        }
+        countRequest(false);
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    /**
+     * Get a pooled bitmap that can hold at least the given number of bytes, to be used as
+     * BitmapFactory.Options.inBitmap.
+     * @param byteCount
+     * @return a pooled bitmap, or null if none is big enough
+     */
+    public Bitmap getReusable(int byteCount) {
+        Bitmap bitmap = pool.take(byteCount);
+        countRequest(bitmap != null);
+        return bitmap;
+    }
+
+    /**
+     * Give a bitmap back to the pool. Bitmaps that can't be reused are recycled.
+     * The caller must not use the bitmap anymore after releasing it.
+     * @param bitmap
+     */
+    public void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || pool.contains(bitmap)) {
+            return;
+        }
+        if (!bitmap.isMutable() || !pool.put(bitmap)) {
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * Recycle every pooled bitmap.
+     */
+    public void clear() {
+        pool.clear();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return pool.getEvictionCount();
+    }
+
+    public long getCurrentBytes() {
+        return pool.getCurrentBytes();
+    }
+
+    public long getMaxBytes() {
+        return pool.getMaxBytes();
+    }
+
+    static int getByteCount(int width, int height, Bitmap.Config config) {
+        return width * height * getBytesPerPixel(config);
+    }
+
+    private static int getBytesPerPixel(Bitmap.Config config) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && config == Bitmap.Config.RGBA_F16) {
+            return 8;
+        } else if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        } else if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        }
+        return 4;
+    }
+
+    private synchronized void countRequest(boolean hit) {
+        if (hit) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+    }
+}
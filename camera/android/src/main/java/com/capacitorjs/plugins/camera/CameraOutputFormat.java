@@ -0,0 +1,95 @@
+package com.capacitorjs.plugins.camera;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import java.util.Locale;
+
+public enum CameraOutputFormat {
+    JPEG("jpeg", "jpeg", "image/jpeg"),
+    WEBP("webp", "webp", "image/webp"),
+    WEBP_LOSSLESS("webpLossless", "webp", "image/webp");
+
+    private String option;
+    private String format;
+    private String mimeType;
+
+    CameraOutputFormat(String option, String format, String mimeType) {
+        this.option = option;
+        this.format = format;
+        this.mimeType = mimeType;
+    }
+
+    public String getOption() {
+        return option;
+    }
+
+    /**
+     * The format reported back to the caller, also used as the file extension
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Get the compress format to encode bitmaps with. Before Android 11 there is a single
+     * WEBP format, which is lossless when the quality is 100 from Android 10 on and always
+     * lossy before.
+     * @return
+     */
+    @SuppressWarnings("deprecation")
+    public Bitmap.CompressFormat getCompressFormat() {
+        if (this == JPEG) {
+            return Bitmap.CompressFormat.JPEG;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            return this == WEBP_LOSSLESS ? Bitmap.CompressFormat.WEBP_LOSSLESS : Bitmap.CompressFormat.WEBP_LOSSY;
+        }
+        return Bitmap.CompressFormat.WEBP;
+    }
+
+    /**
+     * Whether the format can be encoded on this device, lossless WebP needs Android 10+
+     * @return
+     */
+    public boolean isSupported() {
+        return this != WEBP_LOSSLESS || Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q;
+    }
+
+    /**
+     * Get the quality to pass along with the compress format
+     * @param quality the requested quality
+     * @return
+     */
+    public int getCompressQuality(int quality) {
+        if (this == WEBP_LOSSLESS && Build.VERSION.SDK_INT < Build.VERSION_CODES.R) {
+            return CameraSettings.MAX_QUALITY;
+        }
+        return quality;
+    }
+
+    /**
+     * Whether the file name already has an extension matching this format
+     * @param filename
+     * @return
+     */
+    public boolean hasExtension(String filename) {
+        String lowerCaseName = filename.toLowerCase(Locale.ROOT);
+        if (this == JPEG) {
+            return lowerCaseName.contains(".jpg") || lowerCaseName.contains(".jpeg");
+        }
+        return lowerCaseName.endsWith("." + format);
+    }
+
+    public static CameraOutputFormat fromOption(String option) {
+        for (CameraOutputFormat outputFormat : values()) {
+            if (outputFormat.option.equals(option)) {
+                return outputFormat;
+            }
+        }
+        throw new IllegalArgumentException("Unknown output format: " + option);
+    }
+}
@@ -4,20 +4,18 @@ import android.Manifest;
 import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.content.ActivityNotFoundException;
-import android.content.ContentResolver;
-import android.content.ContentValues;
+import android.content.ComponentCallbacks2;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
+import android.content.res.Configuration;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
+import android.graphics.Rect;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.Environment;
 import android.os.Parcelable;
 import android.provider.MediaStore;
-import android.util.Base64;
 import androidx.activity.result.ActivityResult;
 import androidx.activity.result.ActivityResultCallback;
 import androidx.activity.result.ActivityResultLauncher;
@@ -39,20 +37,30 @@ import com.getcapacitor.annotation.ActivityCallback;
 import com.getcapacitor.annotation.CapacitorPlugin;
 import com.getcapacitor.annotation.Permission;
 import com.getcapacitor.annotation.PermissionCallback;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.Executor;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.json.JSONException;
 
@@ -92,6 +100,9 @@ public class CameraPlugin extends Plugin {
     static final String SAVE_GALLERY = "saveGallery";
     static final String READ_EXTERNAL_STORAGE = "readExternalStorage";
 
+    // Event constants
+    static final String PICKED_IMAGE_EVENT = "pickedImage";
+
     // Message constants
     private static final String INVALID_RESULT_TYPE_ERROR = "Invalid resultType option";
     private static final String PERMISSION_DENIED_ERROR_CAMERA = "User denied access to camera";
@@ -103,7 +114,26 @@ public class CameraPlugin extends Plugin {
     private static final String UNABLE_TO_PROCESS_IMAGE = "Unable to process image";
     private static final String IMAGE_EDIT_ERROR = "Unable to edit image";
     private static final String IMAGE_GALLERY_SAVE_ERROR = "Unable to save the image in the gallery";
+    private static final String THUMBNAIL_ERROR = "Unable to create thumbnail";
     private static final String USER_CANCELLED = "User cancelled photos app";
+    private static final String IMAGE_PROCESSING_CANCELLED = "Image processing cancelled";
+    private static final String UNSUPPORTED_OUTPUT_FORMAT_ERROR = "webpLossless output format requires Android 10 or later";
+
+    // Image processing constants
+    private static final int MAX_IMAGE_PROCESSING_THREADS = 4;
+    private static final long IMAGE_PROCESSING_THREAD_KEEP_ALIVE_SECONDS = 30;
+    private static final long FULL_SIZE_DECODE_BYTES = 48L * 1024 * 1024;
+    private static final int BITMAP_POOL_HEAP_FRACTION = 8;
+    private static final int FILE_WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int THUMBNAIL_QUALITY = 80;
+    private static final long THUMBNAIL_CACHE_BYTES = 32L * 1024 * 1024;
+    private static final String THUMBNAIL_CACHE_DIRECTORY = "camera_thumbnails";
+    private static final long TEMP_IMAGE_CACHE_BYTES = 100L * 1024 * 1024;
+    private static final long TEMP_IMAGE_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final String TEMP_IMAGE_DIRECTORY = "camera_images";
+    private static final int MIN_BUDGET_QUALITY = 5;
+    private static final int MAX_BUDGET_SCALE_STEPS = 4;
+    private static final float BUDGET_SCALE_FACTOR = 0.75f;
 
     private String imageFileSavePath;
     private String imageEditedFileSavePath;
@@ -111,7 +141,6 @@ public class CameraPlugin extends Plugin {
     private Uri imagePickedContentUri;
     private boolean isEdited = false;
     private boolean isFirstRequest = true;
-    private boolean isSaved = false;
     private ActivityResultLauncher<PickVisualMediaRequest> pickMultipleMedia = null;
     private ActivityResultLauncher<PickVisualMediaRequest> pickMedia = null;
 
@@ -119,21 +148,106 @@ public class CameraPlugin extends Plugin {
 
     private CameraSettings settings = new CameraSettings();
 
+    private ThreadPoolExecutor imageProcessingExecutor;
+    private ExecutorService imageTaskExecutor;
+    private Semaphore imageDecodePermits;
+    // the settled flag of every batch of picked images still being processed
+    private final Map<PluginCall, AtomicBoolean> pendingImageBatches = new ConcurrentHashMap<>();
+    private BitmapPool bitmapPool;
+    private ComponentCallbacks2 memoryCallbacks;
+    private ThumbnailCache thumbnailCache;
+    private TempImageManager tempImageManager;
+    private volatile ImageMetricsListener imageMetricsListener;
+
     @Override
     public void load() {
         super.load();
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), MAX_IMAGE_PROCESSING_THREADS));
+        // allow at most half of the heap to be used by concurrently decoded full size images
+        long decodeBudget = Runtime.getRuntime().maxMemory() / 2;
+        int concurrentDecodes = (int) Math.max(1, Math.min(threads, decodeBudget / FULL_SIZE_DECODE_BYTES));
+        imageDecodePermits = new Semaphore(concurrentDecodes);
+        imageProcessingExecutor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            IMAGE_PROCESSING_THREAD_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>()
+        );
+        imageProcessingExecutor.allowCoreThreadTimeOut(true);
+        imageTaskExecutor = Executors.newSingleThreadExecutor();
+        bitmapPool = new BitmapPool(Runtime.getRuntime().maxMemory() / BITMAP_POOL_HEAP_FRACTION);
+        thumbnailCache = new ThumbnailCache(new File(getContext().getCacheDir(), THUMBNAIL_CACHE_DIRECTORY), THUMBNAIL_CACHE_BYTES);
+        tempImageManager = new TempImageManager(
+            new File(getContext().getCacheDir(), TEMP_IMAGE_DIRECTORY),
+            TEMP_IMAGE_CACHE_BYTES,
+            TEMP_IMAGE_MAX_AGE_MILLIS
+        );
+        trimTempImages();
+        memoryCallbacks = new PoolTrimCallbacks();
+        getContext().registerComponentCallbacks(memoryCallbacks);
+    }
+
+    /**
+     * Release the pooled bitmaps when the system runs low on memory. Hiding the UI alone, e.g.
+     * to take a photo with the camera app, keeps them for the decode that follows.
+     */
+    private class PoolTrimCallbacks implements ComponentCallbacks2 {
+
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_RUNNING_LOW && level != TRIM_MEMORY_UI_HIDDEN) {
+                bitmapPool.clear();
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            bitmapPool.clear();
+        }
+
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration newConfig) {}
+    }
+
+    /**
+     * Get the pool of bitmaps reused while processing images, e.g. to read its hit and miss counts.
+     * @return
+     */
+    public BitmapPool getBitmapPool() {
+        return bitmapPool;
+    }
+
+    /**
+     * Set a listener receiving the metrics of every processed image, whether or not
+     * the call asked for them with includeMetrics. Pass null to remove it.
+     * @param listener
+     */
+    public void setImageMetricsListener(ImageMetricsListener listener) {
+        imageMetricsListener = listener;
     }
 
     @PluginMethod
     public void getPhoto(PluginCall call) {
         isEdited = false;
+        imageFileSavePath = null;
+        imageEditedFileSavePath = null;
+        imagePickedContentUri = null;
         settings = getSettings(call);
+        if (!settings.getOutputFormat().isSupported()) {
+            call.reject(UNSUPPORTED_OUTPUT_FORMAT_ERROR);
+            return;
+        }
         doShow(call);
     }
 
     @PluginMethod
     public void pickImages(PluginCall call) {
         settings = getSettings(call);
+        if (!settings.getOutputFormat().isSupported()) {
+            call.reject(UNSUPPORTED_OUTPUT_FORMAT_ERROR);
+            return;
+        }
         openPhotos(call, true);
     }
 
@@ -147,6 +261,33 @@ public class CameraPlugin extends Plugin {
         call.unimplemented("not supported on android");
     }
 
+    /**
+     * Report the number of processed images kept in the temp image directory and the bytes they use
+     * @param call
+     */
+    @PluginMethod
+    public void getTempImageUsage(PluginCall call) {
+        call.resolve(getTempImageUsageResult(tempImageManager.getUsage()));
+    }
+
+    /**
+     * Delete every processed image kept in the temp image directory. Paths returned
+     * by previous calls can't be read anymore afterwards.
+     * @param call
+     */
+    @PluginMethod
+    public void purgeTempImages(PluginCall call) {
+        call.resolve(getTempImageUsageResult(tempImageManager.purge()));
+    }
+
+    private JSObject getTempImageUsageResult(TempImageManager.Usage usage) {
+        JSObject ret = new JSObject();
+        ret.put("bytes", usage.getBytes());
+        ret.put("count", usage.getCount());
+        ret.put("maxBytes", tempImageManager.getMaxBytes());
+        return ret;
+    }
+
     private void doShow(PluginCall call) {
         switch (settings.getSource()) {
             case CAMERA:
@@ -276,6 +417,14 @@ public class CameraPlugin extends Plugin {
         settings.setHeight(call.getInt("height", 0));
         settings.setShouldResize(settings.getWidth() > 0 || settings.getHeight() > 0);
         settings.setShouldCorrectOrientation(call.getBoolean("correctOrientation", CameraSettings.DEFAULT_CORRECT_ORIENTATION));
+        settings.setExifTags(getExifTags(call));
+        settings.setPassthrough(call.getBoolean("passthrough", false));
+        settings.setOutputFormat(getOutputFormat(call.getString("outputFormat")));
+        settings.setThumbnailSize(call.getInt("thumbnail", 0));
+        settings.setMaxBytes(call.getInt("maxBytes", 0));
+        settings.setIncludeMetrics(call.getBoolean("includeMetrics", false));
+        settings.setResampling(getResampling(call.getString("resampling")));
+        settings.setCrop(getCrop(call.getObject("crop")));
         try {
             settings.setSource(CameraSource.valueOf(call.getString("source", CameraSource.PROMPT.getSource())));
         } catch (IllegalArgumentException ex) {
@@ -284,6 +433,19 @@ public class CameraPlugin extends Plugin {
         return settings;
     }
 
+    private String[] getExifTags(PluginCall call) {
+        JSArray tags = call.getArray("exifTags");
+        if (tags != null) {
+            try {
+                List<String> tagList = tags.toList();
+                return ExifWrapper.getExportedTags(tagList);
+            } catch (JSONException ex) {
+                Logger.debug(getLogTag(), "Invalid exifTags list, defaulting to all tags");
+            }
+        }
+        return ExifWrapper.getExportedTags(call.getString("exifTags"));
+    }
+
     private CameraResultType getResultType(String resultType) {
         if (resultType == null) {
             return null;
@@ -296,6 +458,45 @@ public class CameraPlugin extends Plugin {
         }
     }
 
+    private CameraOutputFormat getOutputFormat(String outputFormat) {
+        if (outputFormat == null) {
+            return CameraOutputFormat.JPEG;
+        }
+        try {
+            return CameraOutputFormat.fromOption(outputFormat);
+        } catch (IllegalArgumentException ex) {
+            Logger.debug(getLogTag(), "Invalid output format \"" + outputFormat + "\", defaulting to jpeg");
+            return CameraOutputFormat.JPEG;
+        }
+    }
+
+    private ResamplingMode getResampling(String resampling) {
+        if (resampling == null) {
+            return ResamplingMode.NEAREST;
+        }
+        try {
+            return ResamplingMode.fromOption(resampling);
+        } catch (IllegalArgumentException ex) {
+            Logger.debug(getLogTag(), "Invalid resampling mode \"" + resampling + "\", defaulting to nearest");
+            return ResamplingMode.NEAREST;
+        }
+    }
+
+    private Rect getCrop(JSObject crop) {
+        if (crop == null) {
+            return null;
+        }
+        int x = crop.optInt("x", 0);
+        int y = crop.optInt("y", 0);
+        int width = crop.optInt("width", 0);
+        int height = crop.optInt("height", 0);
+        if (x < 0 || y < 0 || width <= 0 || height <= 0) {
+            Logger.debug(getLogTag(), "Invalid crop rectangle, returning the whole image");
+            return null;
+        }
+        return new Rect(x, y, x + width, y + height);
+    }
+
     public void openCamera(final PluginCall call) {
         if (checkCameraPermissions(call)) {
             Intent takePictureIntent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
@@ -353,26 +554,7 @@ public class CameraPlugin extends Plugin {
             if (multiple) {
                 pickMultipleMedia = registerActivityResultLauncher(getContractForCall(call), (uris) -> {
                     if (!uris.isEmpty()) {
-                        Executor executor = Executors.newSingleThreadExecutor();
-                        executor.execute(() -> {
-                            JSObject ret = new JSObject();
-                            JSArray photos = new JSArray();
-                            for (Uri imageUri : uris) {
-                                try {
-                                    JSObject processResult = processPickedImages(imageUri);
-                                    if (processResult.getString("error") != null && !processResult.getString("error").isEmpty()) {
-                                        call.reject(processResult.getString("error"));
-                                        return;
-                                    } else {
-                                        photos.put(processResult);
-                                    }
-                                } catch (SecurityException ex) {
-                                    call.reject("SecurityException");
-                                }
-                            }
-                            ret.put("photos", photos);
-                            call.resolve(ret);
-                        });
+                        processPickedImages(call, uris);
                     } else {
                         call.reject(USER_CANCELLED);
                     }
@@ -402,27 +584,59 @@ public class CameraPlugin extends Plugin {
 
     @ActivityCallback
     public void processCameraImage(PluginCall call, ActivityResult result) {
-        settings = getSettings(call);
         if (imageFileSavePath == null) {
             call.reject(IMAGE_PROCESS_NO_FILE_ERROR);
             return;
         }
-        // Load the image as a Bitmap
-        File f = new File(imageFileSavePath);
-        BitmapFactory.Options bmOptions = new BitmapFactory.Options();
-        Uri contentUri = Uri.fromFile(f);
-        Bitmap bitmap = BitmapFactory.decodeFile(imageFileSavePath, bmOptions);
+        final ImageRequest request = createImageRequest(call);
+        runImageTask(call, () -> {
+            CameraSettings settings = request.getSettings();
+            String path = request.getImageFileSavePath();
+            Uri contentUri = Uri.fromFile(new File(path));
+            ImageMetrics metrics = createImageMetrics(request, contentUri);
+            long start = metrics.start();
+            ExifWrapper exif = ImageUtils.getExifData(getContext(), null, contentUri);
+            metrics.end(ImageMetrics.STAGE_EXIF, start);
+            if (canPassthrough(request, contentUri, exif)) {
+                returnPassthroughResult(call, request, contentUri, exif, metrics);
+                return;
+            }
 
-        if (bitmap == null) {
-            call.reject(USER_CANCELLED);
-            return;
-        }
+            // Load the image as a Bitmap, subsampled to the requested size if any
+            start = metrics.start();
+            Bitmap bitmap;
+            if (settings.getCrop() != null) {
+                try {
+                    bitmap = decodeCrop(request, contentUri, exif);
+                } catch (IOException ex) {
+                    call.reject(UNABLE_TO_PROCESS_IMAGE, ex);
+                    return;
+                }
+            } else {
+                bitmap = ImageUtils.decodeSampledBitmap(path, settings.getWidth(), settings.getHeight(), bitmapPool);
+            }
+            metrics.end(ImageMetrics.STAGE_DECODE, start);
 
-        returnResult(call, bitmap, contentUri);
+            if (bitmap == null) {
+                call.reject(USER_CANCELLED);
+                return;
+            }
+
+            returnResult(call, request, bitmap, contentUri, exif, metrics);
+        });
+    }
+
+    /**
+     * Capture the settings of the call and the paths of the current photo, before
+     * processing it in the background
+     * @param call
+     * @return
+     */
+    private ImageRequest createImageRequest(PluginCall call) {
+        return new ImageRequest(getSettings(call), imageFileSavePath, imageEditedFileSavePath, isEdited);
     }
 
     public void processPickedImage(PluginCall call, ActivityResult result) {
-        settings = getSettings(call);
         Intent data = result.getData();
         if (data == null) {
             call.reject(USER_CANCELLED);
@@ -442,63 +656,310 @@ public class CameraPlugin extends Plugin {
     }
 
     private void processPickedImage(Uri imageUri, PluginCall call) {
-        InputStream imageStream = null;
+        final ImageRequest request = createImageRequest(call);
+        runImageTask(call, () -> {
+            try {
+                ImageMetrics metrics = createImageMetrics(request, imageUri);
+                long start = metrics.start();
+                ExifWrapper exif = ImageUtils.getExifData(getContext(), null, imageUri);
+                metrics.end(ImageMetrics.STAGE_EXIF, start);
+                if (canPassthrough(request, imageUri, exif)) {
+                    returnPassthroughResult(call, request, imageUri, exif, metrics);
+                    return;
+                }
+
+                start = metrics.start();
+                Bitmap bitmap = decodeBitmap(request, imageUri, exif);
+                metrics.end(ImageMetrics.STAGE_DECODE, start);
+
+                if (bitmap == null) {
+                    call.reject("Unable to process bitmap");
+                    return;
+                }
+
+                returnResult(call, request, bitmap, imageUri, exif, metrics);
+            } catch (FileNotFoundException ex) {
+                call.reject("No such image found", ex);
+            } catch (IOException ex) {
+                call.reject(UNABLE_TO_PROCESS_IMAGE, ex);
+            }
+        });
+    }
+
+    /**
+     * Decode a picked image, subsampled to the requested size if any, and cropped to the
+     * requested crop rectangle if any
+     * @param request
+     * @param imageUri
+     * @param exif
+     * @return the decoded Bitmap, or null if the image could not be decoded
+     * @throws IOException
+     */
+    private Bitmap decodeBitmap(ImageRequest request, Uri imageUri, ExifWrapper exif) throws IOException {
+        CameraSettings settings = request.getSettings();
+        if (settings.getCrop() != null) {
+            return decodeCrop(request, imageUri, exif);
+        }
+        return ImageUtils.decodeSampledBitmap(getContext(), imageUri, settings.getWidth(), settings.getHeight(), bitmapPool);
+    }
+
+    /**
+     * Decode only the requested crop rectangle of an image, given in the coordinates of the
+     * upright image, subsampled to the requested size if any
+     * @param request
+     * @param imageUri
+     * @param exif
+     * @return the decoded region, or null if it could not be decoded
+     * @throws IOException
+     */
+    private Bitmap decodeCrop(ImageRequest request, Uri imageUri, ExifWrapper exif) throws IOException {
+        CameraSettings settings = request.getSettings();
+        return ImageUtils.decodeSampledRegion(
+            getContext(),
+            imageUri,
+            settings.getCrop(),
+            exif.getRotationDegrees(),
+            settings.getWidth(),
+            settings.getHeight(),
+            bitmapPool
+        );
+    }
 
+    /**
+     * Run the processing of a single image on the background image task executor,
+     * one image at a time. Tasks still running when the plugin is destroyed are
+     * interrupted and reject their call at the next stage, the ones still queued are
+     * rejected right away.
+     * @param call
+     * @param task
+     */
+    private void runImageTask(PluginCall call, Runnable task) {
         try {
-            imageStream = getContext().getContentResolver().openInputStream(imageUri);
-            Bitmap bitmap = BitmapFactory.decodeStream(imageStream);
+            imageTaskExecutor.execute(new ImageTask(call, task));
+        } catch (RejectedExecutionException ex) {
+            call.reject(UNABLE_TO_PROCESS_IMAGE);
+        }
+    }
 
-            if (bitmap == null) {
-                call.reject("Unable to process bitmap");
-                return;
+    /**
+     * The processing of a single image, kept with its call so that the call can still be
+     * rejected if the task is dropped before it runs
+     */
+    private class ImageTask implements Runnable {
+
+        private final PluginCall call;
+        private final Runnable task;
+
+        ImageTask(PluginCall call, Runnable task) {
+            this.call = call;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } catch (OutOfMemoryError err) {
+                call.reject("Out of memory");
+            } catch (RuntimeException ex) {
+                Logger.error(getLogTag(), UNABLE_TO_PROCESS_IMAGE, ex);
+                call.reject(UNABLE_TO_PROCESS_IMAGE, ex);
             }
+        }
 
-            returnResult(call, bitmap, imageUri);
-        } catch (OutOfMemoryError err) {
-            call.reject("Out of memory");
-        } catch (FileNotFoundException ex) {
-            call.reject("No such image found", ex);
-        } finally {
-            if (imageStream != null) {
+        void cancel() {
+            call.reject(IMAGE_PROCESSING_CANCELLED);
+        }
+    }
+
+    private boolean isImageTaskCancelled() {
+        return Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Process the picked images concurrently on the shared image processing pool and
+     * resolve the call with the photos in the order they were picked. The first failure
+     * rejects the call and cancels the images that are still pending. Running images stop
+     * between their stages once cancelled.
+     *
+     * If the streamResults option is set, every photo is emitted through the pickedImage
+     * event as soon as it is ready and the call only resolves with the number of photos.
+     * @param call
+     * @param uris
+     */
+    private void processPickedImages(final PluginCall call, final List<Uri> uris) {
+        final ImageRequest request = new ImageRequest(getSettings(call), null, null, false);
+        final int count = uris.size();
+        final boolean streamResults = call.getBoolean("streamResults", false);
+        final JSObject[] results = streamResults ? null : new JSObject[count];
+        final List<Future<?>> tasks = new ArrayList<>(count);
+        final AtomicInteger remaining = new AtomicInteger(count);
+        final AtomicBoolean settled = new AtomicBoolean(false);
+        pendingImageBatches.put(call, settled);
+
+        synchronized (tasks) {
+            for (int i = 0; i < count; i++) {
+                final int index = i;
+                final Uri imageUri = uris.get(i);
                 try {
-                    imageStream.close();
-                } catch (IOException e) {
-                    Logger.error(getLogTag(), UNABLE_TO_PROCESS_IMAGE, e);
+                    tasks.add(
+                        imageProcessingExecutor.submit(() -> {
+                            JSObject processResult = processPickedImageWithPermit(request, imageUri, settled);
+                            if (processResult == null) {
+                                return;
+                            }
+
+                            String error = processResult.getString("error");
+                            if (error != null && !error.isEmpty()) {
+                                if (settled.compareAndSet(false, true)) {
+                                    pendingImageBatches.remove(call);
+                                    call.reject(error);
+                                    synchronized (tasks) {
+                                        for (Future<?> task : tasks) {
+                                            task.cancel(true);
+                                        }
+                                    }
+                                }
+                                return;
+                            }
+
+                            if (streamResults) {
+                                processResult.put("index", index);
+                                notifyListeners(PICKED_IMAGE_EVENT, processResult);
+                            } else {
+                                results[index] = processResult;
+                            }
+
+                            if (remaining.decrementAndGet() == 0 && settled.compareAndSet(false, true)) {
+                                pendingImageBatches.remove(call);
+                                JSArray photos = new JSArray();
+                                if (!streamResults) {
+                                    for (JSObject photo : results) {
+                                        photos.put(photo);
+                                    }
+                                }
+                                JSObject ret = new JSObject();
+                                ret.put("photos", photos);
+                                ret.put("count", count);
+                                call.resolve(ret);
+                                trimTempImages();
+                            }
+                        })
+                    );
+                } catch (RejectedExecutionException ex) {
+                    if (settled.compareAndSet(false, true)) {
+                        pendingImageBatches.remove(call);
+                        call.reject(UNABLE_TO_PROCESS_IMAGE, ex);
+                    }
+                    return;
                 }
             }
         }
     }
 
-    private JSObject processPickedImages(Uri imageUri) {
-        InputStream imageStream = null;
+    /**
+     * Process a single picked image once a decode permit is available, so that the number
+     * of images held in memory at the same time stays within the decode budget.
+     * @param request
+     * @param imageUri
+     * @param settled set once the call of the batch is settled, by another image failing
+     * @return the processed image, or null if the batch is already settled
+     */
+    private JSObject processPickedImageWithPermit(ImageRequest request, Uri imageUri, AtomicBoolean settled) {
+        if (settled.get()) {
+            return null;
+        }
+        try {
+            imageDecodePermits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return cancelledResult(new JSObject());
+        }
+        try {
+            if (settled.get()) {
+                return null;
+            }
+            if (isImageTaskCancelled()) {
+                return cancelledResult(new JSObject());
+            }
+            return processPickedImages(request, imageUri);
+        } catch (SecurityException ex) {
+            JSObject ret = new JSObject();
+            ret.put("error", "SecurityException");
+            return ret;
+        } finally {
+            imageDecodePermits.release();
+        }
+    }
+
+    private JSObject cancelledResult(JSObject ret) {
+        ret.put("error", IMAGE_PROCESSING_CANCELLED);
+        return ret;
+    }
+
+    private JSObject processPickedImages(ImageRequest request, Uri imageUri) {
+        CameraSettings settings = request.getSettings();
         JSObject ret = new JSObject();
         try {
-            imageStream = getContext().getContentResolver().openInputStream(imageUri);
-            Bitmap bitmap = BitmapFactory.decodeStream(imageStream);
+            ImageMetrics metrics = createImageMetrics(request, imageUri);
+            long start = metrics.start();
+            ExifWrapper exif = ImageUtils.getExifData(getContext(), null, imageUri);
+            metrics.end(ImageMetrics.STAGE_EXIF, start);
+            putThumbnail(ret, getThumbnail(request, imageUri, exif.getRotationDegrees(), metrics));
+            Uri newUri;
+            if (canPassthrough(request, imageUri, exif)) {
+                start = metrics.start();
+                newUri = getPassthroughImage(request, imageUri);
+                metrics.end(ImageMetrics.STAGE_WRITE, start);
+                metrics.setOutputSize(metrics.getInputWidth(), metrics.getInputHeight());
+            } else {
+                start = metrics.start();
+                Bitmap bitmap = decodeBitmap(request, imageUri, exif);
+                metrics.end(ImageMetrics.STAGE_DECODE, start);
 
-            if (bitmap == null) {
-                ret.put("error", "Unable to process bitmap");
-                return ret;
-            }
+                if (bitmap == null) {
+                    ret.put("error", "Unable to process bitmap");
+                    return ret;
+                }
+                if (isImageTaskCancelled()) {
+                    bitmapPool.release(bitmap);
+                    return cancelledResult(ret);
+                }
 
-            ExifWrapper exif = ImageUtils.getExifData(getContext(), bitmap, imageUri);
-            try {
-                bitmap = prepareBitmap(bitmap, imageUri, exif);
-            } catch (IOException e) {
-                ret.put("error", UNABLE_TO_PROCESS_IMAGE);
-                return ret;
+                bitmap = prepareBitmap(request, bitmap, exif, metrics);
+                if (isImageTaskCancelled()) {
+                    bitmapPool.release(bitmap);
+                    return cancelledResult(ret);
+                }
+                // Compress the final image straight to its output file, unless it has to fit a budget
+                start = metrics.start();
+                ImageOutputStream bitmapOutputStream = null;
+                if (settings.getMaxBytes() > 0) {
+                    bitmapOutputStream = compressToBudget(request, bitmap, settings.getMaxBytes(), ret, metrics);
+                }
+                newUri = getTempImage(request, imageUri, bitmap, bitmapOutputStream);
+                metrics.end(ImageMetrics.STAGE_COMPRESS, start);
+                if (isImageTaskCancelled()) {
+                    bitmapPool.release(bitmap);
+                    return cancelledResult(ret);
+                }
+                if (newUri != null) {
+                    start = metrics.start();
+                    exif.copyExif(newUri.getPath());
+                    metrics.end(ImageMetrics.STAGE_EXIF, start);
+                    if (bitmapOutputStream != null) {
+                        newUri = fitExifInBudget(request, bitmap, bitmapOutputStream, newUri, exif, ret, metrics);
+                    }
+                }
+                bitmapPool.release(bitmap);
             }
-            // Compress the final image and prepare for output to client
-            ByteArrayOutputStream bitmapOutputStream = new ByteArrayOutputStream();
-            bitmap.compress(Bitmap.CompressFormat.JPEG, settings.getQuality(), bitmapOutputStream);
 
-            Uri newUri = getTempImage(imageUri, bitmapOutputStream);
-            exif.copyExif(newUri.getPath());
             if (newUri != null) {
-                ret.put("format", "jpeg");
-                ret.put("exif", exif.toJson());
+                ret.put("format", settings.getOutputFormat().getFormat());
+                ret.put("exif", exif.toJson(settings.getExifTags()));
                 ret.put("path", newUri.toString());
                 ret.put("webPath", FileUtils.getPortablePath(getContext(), bridge.getLocalUrl(), newUri));
+                putMetrics(request, ret, metrics);
             } else {
                 ret.put("error", UNABLE_TO_PROCESS_IMAGE);
             }
@@ -508,14 +969,9 @@ public class CameraPlugin extends Plugin {
         } catch (FileNotFoundException ex) {
             ret.put("error", "No such image found");
             Logger.error(getLogTag(), "No such image found", ex);
-        } finally {
-            if (imageStream != null) {
-                try {
-                    imageStream.close();
-                } catch (IOException e) {
-                    Logger.error(getLogTag(), UNABLE_TO_PROCESS_IMAGE, e);
-                }
-            }
+        } catch (IOException ex) {
+            ret.put("error", UNABLE_TO_PROCESS_IMAGE);
+            Logger.error(getLogTag(), UNABLE_TO_PROCESS_IMAGE, ex);
         }
         return ret;
     }
@@ -523,7 +979,6 @@ public class CameraPlugin extends Plugin {
     @ActivityCallback
     private void processEditedImage(PluginCall call, ActivityResult result) {
         isEdited = true;
-        settings = getSettings(call);
         if (result.getResultCode() == Activity.RESULT_CANCELED) {
             // User cancelled the edit operation, if this file was picked from photos,
             // process the original picked image, otherwise process it as a camera photo
@@ -540,234 +995,686 @@ public class CameraPlugin extends Plugin {
     /**
      * Save the modified image on the same path,
      * or on a temporary location if it's a content url
+     * @param request
      * @param uri
-     * @param is
+     * @param bitmap
+     * @param encoded the already encoded image, or null to compress the bitmap
      * @return
      * @throws IOException
      */
-    private Uri saveImage(Uri uri, InputStream is) throws IOException {
+    private Uri saveImage(ImageRequest request, Uri uri, Bitmap bitmap, ImageOutputStream encoded) throws IOException {
         File outFile = null;
-        if (uri.getScheme().equals("content")) {
-            outFile = getTempFile(uri);
+        if (uri.getScheme().equals("content") || !request.getSettings().getOutputFormat().hasExtension(uri.getPath())) {
+            outFile = getTempFile(request, uri);
         } else {
             outFile = new File(uri.getPath());
         }
         try {
-            writePhoto(outFile, is);
+            writePhoto(request, outFile, bitmap, encoded);
         } catch (FileNotFoundException ex) {
             // Some gallery apps return read only file url, create a temporary file for modifications
-            outFile = getTempFile(uri);
-            writePhoto(outFile, is);
+            outFile = getTempFile(request, uri);
+            writePhoto(request, outFile, bitmap, encoded);
         }
         return Uri.fromFile(outFile);
     }
 
-    private void writePhoto(File outFile, InputStream is) throws IOException {
-        FileOutputStream fos = new FileOutputStream(outFile);
-        byte[] buffer = new byte[1024];
-        int len;
-        while ((len = is.read(buffer)) != -1) {
-            fos.write(buffer, 0, len);
+    private void writePhoto(ImageRequest request, File outFile, Bitmap bitmap, ImageOutputStream encoded) throws IOException {
+        if (encoded != null) {
+            try (OutputStream os = new FileOutputStream(outFile)) {
+                encoded.writeTo(os);
+            }
+            return;
+        }
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(outFile), FILE_WRITE_BUFFER_SIZE)) {
+            if (!compressBitmap(request, bitmap, os)) {
+                throw new IOException("Unable to compress the image");
+            }
         }
-        fos.close();
     }
 
-    private File getTempFile(Uri uri) {
+    private File getTempFile(ImageRequest request, Uri uri) {
         String filename = Uri.parse(Uri.decode(uri.toString())).getLastPathSegment();
-        if (!filename.contains(".jpg") && !filename.contains(".jpeg")) {
-            filename += "." + (new java.util.Date()).getTime() + ".jpeg";
+        CameraOutputFormat outputFormat = request.getSettings().getOutputFormat();
+        if (!outputFormat.hasExtension(filename)) {
+            filename += "." + (new java.util.Date()).getTime() + "." + outputFormat.getFormat();
         }
-        File cacheDir = getContext().getCacheDir();
-        return new File(cacheDir, filename);
+        return new File(tempImageManager.getDirectory(), filename);
     }
 
     /**
      * After processing the image, return the final result back to the caller.
      * @param call
+     * @param request
      * @param bitmap
      * @param u
+     * @param exif
      */
-    @SuppressWarnings("deprecation")
-    private void returnResult(PluginCall call, Bitmap bitmap, Uri u) {
-        ExifWrapper exif = ImageUtils.getExifData(getContext(), bitmap, u);
-        try {
-            bitmap = prepareBitmap(bitmap, u, exif);
-        } catch (IOException e) {
-            call.reject(UNABLE_TO_PROCESS_IMAGE);
+    private void returnResult(PluginCall call, ImageRequest request, Bitmap bitmap, Uri u, ExifWrapper exif, ImageMetrics metrics) {
+        CameraSettings settings = request.getSettings();
+        if (isImageTaskCancelled()) {
+            bitmapPool.release(bitmap);
+            call.reject(IMAGE_PROCESSING_CANCELLED);
             return;
         }
-        // Compress the final image and prepare for output to client
-        ByteArrayOutputStream bitmapOutputStream = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, settings.getQuality(), bitmapOutputStream);
-
-        if (settings.isAllowEditing() && !isEdited) {
-            editImage(call, u, bitmapOutputStream);
+        int orientation = exif.getRotationDegrees();
+        bitmap = prepareBitmap(request, bitmap, exif, metrics);
+        if (isImageTaskCancelled()) {
+            bitmapPool.release(bitmap);
+            call.reject(IMAGE_PROCESSING_CANCELLED);
             return;
         }
 
-        boolean saveToGallery = call.getBoolean("saveToGallery", CameraSettings.DEFAULT_SAVE_IMAGE_TO_GALLERY);
-        if (saveToGallery && (imageEditedFileSavePath != null || imageFileSavePath != null)) {
-            isSaved = true;
-            try {
-                String fileToSavePath = imageEditedFileSavePath != null ? imageEditedFileSavePath : imageFileSavePath;
-                File fileToSave = new File(fileToSavePath);
-
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                    ContentResolver resolver = getContext().getContentResolver();
-                    ContentValues values = new ContentValues();
-                    values.put(MediaStore.MediaColumns.DISPLAY_NAME, fileToSave.getName());
-                    values.put(MediaStore.MediaColumns.MIME_TYPE, "image/jpeg");
-                    values.put(MediaStore.MediaColumns.RELATIVE_PATH, Environment.DIRECTORY_DCIM);
-
-                    final Uri contentUri = MediaStore.Images.Media.EXTERNAL_CONTENT_URI;
-                    Uri uri = resolver.insert(contentUri, values);
-
-                    if (uri == null) {
-                        throw new IOException("Failed to create new MediaStore record.");
-                    }
-
-                    OutputStream stream = resolver.openOutputStream(uri);
-                    if (stream == null) {
-                        throw new IOException("Failed to open output stream.");
-                    }
+        if (settings.isAllowEditing() && !request.isEdited()) {
+            editImage(call, request, u, bitmap);
+            bitmapPool.release(bitmap);
+            return;
+        }
 
-                    Boolean inserted = bitmap.compress(Bitmap.CompressFormat.JPEG, settings.getQuality(), stream);
+        JSObject extras = new JSObject();
+        putThumbnail(extras, getThumbnail(request, u, orientation, metrics));
+
+        // Compress the final image once and prepare for output to client. File results are
+        // compressed straight to disk, unless they have to fit a budget, only base64 results
+        // need the image in memory
+        long start = metrics.start();
+        ImageOutputStream bitmapOutputStream = null;
+        if (settings.getMaxBytes() > 0) {
+            bitmapOutputStream = compressToBudget(request, bitmap, settings.getMaxBytes(), extras, metrics);
+        } else if (settings.getResultType() == CameraResultType.BASE64 || settings.getResultType() == CameraResultType.DATAURL) {
+            bitmapOutputStream = compressBitmap(request, bitmap);
+        }
+        Uri newUri = null;
+        if (settings.getResultType() == CameraResultType.URI) {
+            newUri = getTempImage(request, u, bitmap, bitmapOutputStream);
+        }
+        metrics.end(ImageMetrics.STAGE_COMPRESS, start);
+        if (newUri != null) {
+            start = metrics.start();
+            exif.copyExif(newUri.getPath());
+            metrics.end(ImageMetrics.STAGE_EXIF, start);
+            if (bitmapOutputStream != null) {
+                newUri = fitExifInBudget(request, bitmap, bitmapOutputStream, newUri, exif, extras, metrics);
+            }
+        }
+        bitmapPool.release(bitmap);
 
-                    if (!inserted) {
-                        isSaved = false;
-                    }
-                } else {
-                    String inserted = MediaStore.Images.Media.insertImage(
-                        getContext().getContentResolver(),
-                        fileToSavePath,
-                        fileToSave.getName(),
-                        ""
-                    );
+        deliverResult(call, request, exif, bitmapOutputStream, newUri, extras, metrics);
+    }
 
-                    if (inserted == null) {
-                        isSaved = false;
-                    }
-                }
-            } catch (FileNotFoundException e) {
-                isSaved = false;
-                Logger.error(getLogTag(), IMAGE_GALLERY_SAVE_ERROR, e);
-            } catch (IOException e) {
-                isSaved = false;
-                Logger.error(getLogTag(), IMAGE_GALLERY_SAVE_ERROR, e);
+    /**
+     * Return the original image back to the caller, without decoding and re-encoding it.
+     * @see #canPassthrough(ImageRequest, Uri, ExifWrapper)
+     * @param call
+     * @param request
+     * @param u
+     * @param exif
+     */
+    private void returnPassthroughResult(PluginCall call, ImageRequest request, Uri u, ExifWrapper exif, ImageMetrics metrics) {
+        CameraSettings settings = request.getSettings();
+        JSObject extras = new JSObject();
+        putThumbnail(extras, getThumbnail(request, u, exif.getRotationDegrees(), metrics));
+        metrics.setOutputSize(metrics.getInputWidth(), metrics.getInputHeight());
+        ImageOutputStream imageOutputStream = null;
+        Uri newUri = null;
+        long start = metrics.start();
+        try {
+            if (settings.getResultType() == CameraResultType.URI) {
+                newUri = getPassthroughImage(request, u);
+            } else if (settings.getResultType() == CameraResultType.BASE64 || settings.getResultType() == CameraResultType.DATAURL) {
+                imageOutputStream = ImageUtils.readImage(getContext(), u);
             }
+        } catch (IOException ex) {
+            call.reject(UNABLE_TO_PROCESS_IMAGE, ex);
+            clearResultState(request);
+            return;
         }
+        metrics.end(ImageMetrics.STAGE_WRITE, start);
+
+        deliverResult(call, request, exif, imageOutputStream, newUri, extras, metrics);
+    }
+
+    /**
+     * Save the encoded image to the gallery if requested, then resolve the call
+     * @param call
+     * @param request
+     * @param exif
+     * @param imageOutputStream the encoded image for base64 and dataUrl results
+     * @param newUri the image file for uri results
+     * @param extras additional values to add to the result, e.g. the thumbnail
+     * @param metrics
+     */
+    private void deliverResult(
+        PluginCall call,
+        ImageRequest request,
+        ExifWrapper exif,
+        ImageOutputStream imageOutputStream,
+        Uri newUri,
+        JSObject extras,
+        ImageMetrics metrics
+    ) {
+        CameraSettings settings = request.getSettings();
+        long start = metrics.start();
+        boolean saved = saveToGallery(request, imageOutputStream, newUri);
+        metrics.end(ImageMetrics.STAGE_GALLERY, start);
 
         if (settings.getResultType() == CameraResultType.BASE64) {
-            returnBase64(call, exif, bitmapOutputStream);
+            returnBase64(call, request, exif, imageOutputStream, extras, metrics);
         } else if (settings.getResultType() == CameraResultType.URI) {
-            returnFileURI(call, exif, bitmap, u, bitmapOutputStream);
+            resolveFileURI(call, request, exif, newUri, saved, extras, metrics);
         } else if (settings.getResultType() == CameraResultType.DATAURL) {
-            returnDataUrl(call, exif, bitmapOutputStream);
+            returnDataUrl(call, request, exif, imageOutputStream, extras, metrics);
         } else {
             call.reject(INVALID_RESULT_TYPE_ERROR);
         }
-        // Result returned, clear stored paths and images
-        if (settings.getResultType() != CameraResultType.URI) {
-            deleteImageFile();
+        clearResultState(request);
+    }
+
+    /**
+     * Whether the image can be returned as is: it has to be a JPEG that needs no resize,
+     * rotation or editing, and either the passthrough option is set or quality is 100.
+     * @param request
+     * @param imageUri
+     * @param exif
+     * @return
+     */
+    private boolean canPassthrough(ImageRequest request, Uri imageUri, ExifWrapper exif) {
+        CameraSettings settings = request.getSettings();
+        if (settings.getOutputFormat() != CameraOutputFormat.JPEG || settings.getMaxBytes() > 0 || settings.getCrop() != null) {
+            return false;
+        }
+        if (!settings.isPassthrough() && settings.getQuality() < CameraSettings.MAX_QUALITY) {
+            return false;
         }
-        imageFileSavePath = null;
-        imageFileUri = null;
-        imagePickedContentUri = null;
-        imageEditedFileSavePath = null;
+        if (settings.isShouldResize() || (settings.isAllowEditing() && !request.isEdited())) {
+            return false;
+        }
+        if (settings.isShouldCorrectOrientation() && exif.getRotationDegrees() != 0) {
+            return false;
+        }
+        try {
+            return CameraOutputFormat.JPEG.getMimeType().equals(ImageUtils.getMimeType(getContext(), imageUri));
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Get a file uri holding the original image. Content uris are copied to a temporary
+     * file, file uris (e.g. camera captures) are already on disk and returned as is.
+     * @param request
+     * @param u
+     * @return
+     * @throws IOException
+     */
+    private Uri getPassthroughImage(ImageRequest request, Uri u) throws IOException {
+        if (!"content".equals(u.getScheme())) {
+            return u;
+        }
+        File outFile = getTempFile(request, u);
+        ImageUtils.copyImage(getContext(), u, outFile);
+        return Uri.fromFile(outFile);
+    }
+
+    private boolean shouldSaveToGallery(ImageRequest request) {
+        return (
+            request.getSettings().isSaveToGallery() &&
+            (request.getImageEditedFileSavePath() != null || request.getImageFileSavePath() != null)
+        );
     }
 
-    private void deleteImageFile() {
-        if (imageFileSavePath != null && !settings.isSaveToGallery()) {
-            File photoFile = new File(imageFileSavePath);
+    /**
+     * Save the already encoded image to the gallery if requested, streaming either the
+     * in-memory bytes or the result file into the MediaStore record.
+     * @param request
+     * @param imageOutputStream
+     * @param newUri
+     * @return whether the image was saved
+     */
+    private boolean saveToGallery(ImageRequest request, ImageOutputStream imageOutputStream, Uri newUri) {
+        if (!shouldSaveToGallery(request) || (imageOutputStream == null && newUri == null)) {
+            return false;
+        }
+        String fileToSavePath = request.getImageEditedFileSavePath() != null
+            ? request.getImageEditedFileSavePath()
+            : request.getImageFileSavePath();
+        String displayName = new File(fileToSavePath).getName();
+        try (
+            InputStream is = newUri != null ? new FileInputStream(new File(newUri.getPath())) : imageOutputStream.toInputStream()
+        ) {
+            String mimeType = request.getSettings().getOutputFormat().getMimeType();
+            GalleryWriter.write(getContext().getContentResolver(), is, displayName, mimeType);
+            return true;
+        } catch (FileNotFoundException e) {
+            Logger.error(getLogTag(), IMAGE_GALLERY_SAVE_ERROR, e);
+        } catch (IOException e) {
+            Logger.error(getLogTag(), IMAGE_GALLERY_SAVE_ERROR, e);
+        }
+        return false;
+    }
+
+    /**
+     * Result returned, delete the photo of the request unless it's still needed.
+     * The plugin fields are only reset on the main thread, by the next request.
+     * @param request
+     */
+    private void clearResultState(ImageRequest request) {
+        if (request.getSettings().getResultType() != CameraResultType.URI) {
+            deleteImageFile(request);
+        }
+        trimTempImages();
+    }
+
+    /**
+     * Evict old temp images on the image processing executor
+     */
+    private void trimTempImages() {
+        try {
+            imageProcessingExecutor.execute(tempImageManager::trim);
+        } catch (RejectedExecutionException ex) {
+            Logger.debug(getLogTag(), "Image processing stopped, temp images not trimmed");
+        }
+    }
+
+    private void deleteImageFile(ImageRequest request) {
+        if (request.getImageFileSavePath() != null && !request.getSettings().isSaveToGallery()) {
+            File photoFile = new File(request.getImageFileSavePath());
             if (photoFile.exists()) {
                 photoFile.delete();
             }
         }
     }
 
-    private void returnFileURI(PluginCall call, ExifWrapper exif, Bitmap bitmap, Uri u, ByteArrayOutputStream bitmapOutputStream) {
-        Uri newUri = getTempImage(u, bitmapOutputStream);
-        exif.copyExif(newUri.getPath());
+    private void resolveFileURI(
+        PluginCall call,
+        ImageRequest request,
+        ExifWrapper exif,
+        Uri newUri,
+        boolean saved,
+        JSObject extras,
+        ImageMetrics metrics
+    ) {
+        CameraSettings settings = request.getSettings();
         if (newUri != null) {
             JSObject ret = new JSObject();
-            ret.put("format", "jpeg");
-            ret.put("exif", exif.toJson());
+            ret.put("format", settings.getOutputFormat().getFormat());
+            ret.put("exif", exif.toJson(settings.getExifTags()));
             ret.put("path", newUri.toString());
             ret.put("webPath", FileUtils.getPortablePath(getContext(), bridge.getLocalUrl(), newUri));
-            ret.put("saved", isSaved);
+            ret.put("saved", saved);
+            putExtras(ret, extras);
+            putMetrics(request, ret, metrics);
             call.resolve(ret);
         } else {
             call.reject(UNABLE_TO_PROCESS_IMAGE);
         }
     }
 
-    private Uri getTempImage(Uri u, ByteArrayOutputStream bitmapOutputStream) {
-        ByteArrayInputStream bis = null;
-        Uri newUri = null;
+    /**
+     * Get a thumbnail of the image if one was requested, from the thumbnail cache if the
+     * same image was processed before
+     * @param request
+     * @param imageUri
+     * @param orientation the rotation of the image in degrees, from its exif data
+     * @param metrics
+     * @return the thumbnail file, or null if no thumbnail was requested or it could not be created
+     */
+    private Uri getThumbnail(ImageRequest request, Uri imageUri, int orientation, ImageMetrics metrics) {
+        int size = request.getSettings().getThumbnailSize();
+        if (size <= 0) {
+            return null;
+        }
+        long start = metrics.start();
         try {
-            bis = new ByteArrayInputStream(bitmapOutputStream.toByteArray());
-            newUri = saveImage(u, bis);
-        } catch (IOException ex) {} finally {
-            if (bis != null) {
-                try {
-                    bis.close();
-                } catch (IOException e) {
-                    Logger.error(getLogTag(), UNABLE_TO_PROCESS_IMAGE, e);
-                }
+            return getThumbnail(request, imageUri, orientation, size);
+        } finally {
+            metrics.end(ImageMetrics.STAGE_THUMBNAIL, start);
+        }
+    }
+
+    private Uri getThumbnail(ImageRequest request, Uri imageUri, int orientation, int size) {
+        CameraOutputFormat outputFormat = request.getSettings().getOutputFormat();
+        String fileName = ThumbnailCache.getFileName(getContext(), imageUri, size, outputFormat.getFormat());
+        if (fileName != null) {
+            File cached = thumbnailCache.get(fileName);
+            if (cached != null) {
+                return Uri.fromFile(cached);
+            }
+        } else {
+            // the image can't be identified, store the thumbnail under a unique name
+            fileName = "thumbnail." + UUID.randomUUID() + "." + outputFormat.getFormat();
+        }
+
+        Bitmap thumbnail = null;
+        try {
+            thumbnail = ImageUtils.decodeThumbnail(
+                getContext(),
+                imageUri,
+                size,
+                orientation,
+                bitmapPool,
+                request.getSettings().getResampling()
+            );
+            if (thumbnail == null) {
+                return null;
+            }
+            File tempFile = thumbnailCache.createTempFile(fileName);
+            try (OutputStream os = new BufferedOutputStream(new FileOutputStream(tempFile), FILE_WRITE_BUFFER_SIZE)) {
+                thumbnail.compress(outputFormat.getCompressFormat(), outputFormat.getCompressQuality(THUMBNAIL_QUALITY), os);
+            }
+            return Uri.fromFile(thumbnailCache.put(fileName, tempFile));
+        } catch (IOException ex) {
+            Logger.error(getLogTag(), THUMBNAIL_ERROR, ex);
+            return null;
+        } finally {
+            bitmapPool.release(thumbnail);
+        }
+    }
+
+    private ImageMetrics createImageMetrics(ImageRequest request, Uri imageUri) {
+        ImageMetrics metrics = new ImageMetrics(request.getSettings().isIncludeMetrics() || imageMetricsListener != null);
+        if (metrics.isEnabled()) {
+            try {
+                int[] size = ImageUtils.getImageSize(getContext(), imageUri);
+                metrics.setInputSize(size[0], size[1]);
+            } catch (IOException ex) {
+                // the input size stays unknown
+            }
+        }
+        return metrics;
+    }
+
+    private void putMetrics(ImageRequest request, JSObject ret, ImageMetrics metrics) {
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        metrics.finish();
+        ImageMetricsListener listener = imageMetricsListener;
+        if (listener != null) {
+            try {
+                listener.onImageMetrics(metrics);
+            } catch (RuntimeException ex) {
+                Logger.error(getLogTag(), "Image metrics listener failed", ex);
             }
         }
+        if (request.getSettings().isIncludeMetrics()) {
+            ret.put("metrics", metrics.toJSObject());
+        }
+    }
+
+    private void putExtras(JSObject ret, JSObject extras) {
+        Iterator<String> keys = extras.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            ret.put(key, extras.opt(key));
+        }
+    }
+
+    private void putThumbnail(JSObject ret, Uri thumbnailUri) {
+        if (thumbnailUri != null) {
+            ret.put("thumbnailPath", thumbnailUri.toString());
+            ret.put("thumbnailWebPath", FileUtils.getPortablePath(getContext(), bridge.getLocalUrl(), thumbnailUri));
+        }
+    }
+
+    private Uri getTempImage(ImageRequest request, Uri u, Bitmap bitmap, ImageOutputStream encoded) {
+        Uri newUri = null;
+        try {
+            newUri = saveImage(request, u, bitmap, encoded);
+        } catch (IOException ex) {
+            Logger.error(getLogTag(), UNABLE_TO_PROCESS_IMAGE, ex);
+        }
         return newUri;
     }
 
     /**
      * Apply our standard processing of the bitmap, returning a new one and
      * recycling the old one in the process
+     * @param request
      * @param bitmap
-     * @param imageUri
      * @param exif
      * @return
      */
-    private Bitmap prepareBitmap(Bitmap bitmap, Uri imageUri, ExifWrapper exif) throws IOException {
+    private Bitmap prepareBitmap(ImageRequest request, Bitmap bitmap, ExifWrapper exif, ImageMetrics metrics) {
+        CameraSettings settings = request.getSettings();
+        long start = metrics.start();
+        Bitmap source = bitmap;
         if (settings.isShouldCorrectOrientation()) {
-            final Bitmap newBitmap = ImageUtils.correctOrientation(getContext(), bitmap, imageUri, exif);
+            final Bitmap newBitmap = ImageUtils.correctOrientationAndResize(
+                bitmap,
+                exif,
+                settings.getWidth(),
+                settings.getHeight(),
+                bitmapPool,
+                settings.getResampling()
+            );
             bitmap = replaceBitmap(bitmap, newBitmap);
-        }
-
-        if (settings.isShouldResize()) {
-            final Bitmap newBitmap = ImageUtils.resize(bitmap, settings.getWidth(), settings.getHeight());
+        } else if (settings.isShouldResize()) {
+            final Bitmap newBitmap = ImageUtils.resize(
+                bitmap,
+                settings.getWidth(),
+                settings.getHeight(),
+                bitmapPool,
+                settings.getResampling()
+            );
             bitmap = replaceBitmap(bitmap, newBitmap);
         }
+        metrics.end(ImageMetrics.STAGE_TRANSFORM, start);
 
+        // the source and the transformed bitmap are both alive while transforming
+        long bitmapBytes = source.getAllocationByteCount();
+        if (bitmap != source) {
+            bitmapBytes += bitmap.getAllocationByteCount();
+        }
+        metrics.recordBitmapBytes(bitmapBytes);
+        metrics.setOutputSize(bitmap.getWidth(), bitmap.getHeight());
         return bitmap;
     }
 
+    /**
+     * Encode the bitmap with the requested output format and quality
+     * @param request
+     * @param bitmap
+     * @param stream
+     * @return
+     */
+    private boolean compressBitmap(ImageRequest request, Bitmap bitmap, OutputStream stream) {
+        return compressBitmap(request, bitmap, request.getSettings().getQuality(), stream);
+    }
+
+    private boolean compressBitmap(ImageRequest request, Bitmap bitmap, int quality, OutputStream stream) {
+        CameraOutputFormat outputFormat = request.getSettings().getOutputFormat();
+        return bitmap.compress(outputFormat.getCompressFormat(), outputFormat.getCompressQuality(quality), stream);
+    }
+
+    /**
+     * Encode the bitmap in memory, for results that need the encoded bytes
+     * @param request
+     * @param bitmap
+     * @return
+     */
+    private ImageOutputStream compressBitmap(ImageRequest request, Bitmap bitmap) {
+        ImageOutputStream bitmapOutputStream = new ImageOutputStream();
+        compressBitmap(request, bitmap, bitmapOutputStream);
+        return bitmapOutputStream;
+    }
+
+    /**
+     * Encode the bitmap in memory so that it fits in the given budget. The requested
+     * quality is used if it fits, otherwise the highest quality that fits is found with a
+     * binary search. If not even the lowest quality fits, the bitmap is scaled down and
+     * searched again, and if nothing fits the smallest encoding is returned.
+     * The picked quality is added to the result and the size of the encoded image to the metrics.
+     * @param request
+     * @param bitmap
+     * @param maxBytes the budget of the encoded image
+     * @param ret the result to add the picked quality to
+     * @param metrics
+     * @return
+     */
+    private ImageOutputStream compressToBudget(ImageRequest request, Bitmap bitmap, long maxBytes, JSObject ret, ImageMetrics metrics) {
+        CameraSettings settings = request.getSettings();
+        int quality = settings.getQuality();
+        // lossless quality only trades encode time for size, so only scaling can help
+        boolean searchQuality = settings.getOutputFormat() != CameraOutputFormat.WEBP_LOSSLESS;
+
+        ImageOutputStream best = new ImageOutputStream();
+        compressBitmap(request, bitmap, quality, best);
+        if (best.size() <= maxBytes) {
+            ret.put("quality", quality);
+            metrics.setOutputSize(bitmap.getWidth(), bitmap.getHeight());
+            return best;
+        }
+
+        ImageOutputStream attempt = new ImageOutputStream(best.size());
+        int attemptQuality = quality;
+        Bitmap scaled = bitmap;
+        try {
+            for (int step = 0; step <= MAX_BUDGET_SCALE_STEPS; step++) {
+                if (step > 0) {
+                    int width = Math.max(1, Math.round(scaled.getWidth() * BUDGET_SCALE_FACTOR));
+                    int height = Math.max(1, Math.round(scaled.getHeight() * BUDGET_SCALE_FACTOR));
+                    Bitmap next = ImageUtils.resize(scaled, width, height, bitmapPool, settings.getResampling());
+                    if (scaled != bitmap && scaled != next) {
+                        bitmapPool.release(scaled);
+                    }
+                    scaled = next;
+                }
+
+                int low = searchQuality ? Math.min(MIN_BUDGET_QUALITY, quality) : quality;
+                // the requested quality at full size was tried already
+                int high = step == 0 ? quality - 1 : quality;
+                int bestQuality = -1;
+                while (low <= high) {
+                    int mid = (low + high) >>> 1;
+                    attempt.reset();
+                    compressBitmap(request, scaled, mid, attempt);
+                    attemptQuality = mid;
+                    if (attempt.size() <= maxBytes) {
+                        ImageOutputStream fitting = attempt;
+                        attempt = best;
+                        best = fitting;
+                        bestQuality = mid;
+                        low = mid + 1;
+                    } else {
+                        high = mid - 1;
+                    }
+                }
+
+                if (bestQuality >= 0) {
+                    ret.put("quality", bestQuality);
+                    metrics.setOutputSize(scaled.getWidth(), scaled.getHeight());
+                    return best;
+                }
+            }
+            metrics.setOutputSize(scaled.getWidth(), scaled.getHeight());
+        } finally {
+            if (scaled != bitmap) {
+                bitmapPool.release(scaled);
+            }
+        }
+
+        Logger.debug(getLogTag(), "Image does not fit in " + maxBytes + " bytes, returning the smallest encoding");
+        ret.put("quality", attemptQuality);
+        return attempt;
+    }
+
+    /**
+     * Make the written image fit in the maxBytes budget again if the exif data copied into
+     * it pushed it over. The image is encoded again with the size of the exif data taken off
+     * the budget and written to the same file.
+     * @param request
+     * @param bitmap
+     * @param encoded the image as written before the exif data was copied, replaced with the new encoding
+     * @param imageUri the written image
+     * @param exif
+     * @param ret the result to add the picked quality to
+     * @param metrics
+     * @return the written image, or null if it could not be written again
+     */
+    private Uri fitExifInBudget(
+        ImageRequest request,
+        Bitmap bitmap,
+        ImageOutputStream encoded,
+        Uri imageUri,
+        ExifWrapper exif,
+        JSObject ret,
+        ImageMetrics metrics
+    ) {
+        long maxBytes = request.getSettings().getMaxBytes();
+        File imageFile = new File(imageUri.getPath());
+        long fileBytes = imageFile.length();
+        if (fileBytes <= maxBytes) {
+            return imageUri;
+        }
+
+        long start = metrics.start();
+        long imageBudget = ImageUtils.getImageBudget(maxBytes, fileBytes, encoded.size());
+        ImageOutputStream reencoded = compressToBudget(request, bitmap, imageBudget, ret, metrics);
+        try {
+            encoded.reset();
+            reencoded.writeTo(encoded);
+            writePhoto(request, imageFile, bitmap, encoded);
+        } catch (IOException ex) {
+            Logger.error(getLogTag(), UNABLE_TO_PROCESS_IMAGE, ex);
+            return null;
+        }
+        metrics.end(ImageMetrics.STAGE_COMPRESS, start);
+        start = metrics.start();
+        exif.copyExif(imageFile.getPath());
+        metrics.end(ImageMetrics.STAGE_EXIF, start);
+        return imageUri;
+    }
+
     private Bitmap replaceBitmap(Bitmap bitmap, final Bitmap newBitmap) {
         if (bitmap != newBitmap) {
-            bitmap.recycle();
+            bitmapPool.release(bitmap);
         }
         bitmap = newBitmap;
         return bitmap;
     }
 
-    private void returnDataUrl(PluginCall call, ExifWrapper exif, ByteArrayOutputStream bitmapOutputStream) {
-        byte[] byteArray = bitmapOutputStream.toByteArray();
-        String encoded = Base64.encodeToString(byteArray, Base64.NO_WRAP);
+    private void returnDataUrl(
+        PluginCall call,
+        ImageRequest request,
+        ExifWrapper exif,
+        ImageOutputStream bitmapOutputStream,
+        JSObject extras,
+        ImageMetrics metrics
+    ) {
+        CameraSettings settings = request.getSettings();
+        long start = metrics.start();
+        String dataUrl = bitmapOutputStream.toBase64String("data:" + settings.getOutputFormat().getMimeType() + ";base64,");
+        metrics.end(ImageMetrics.STAGE_BASE64, start);
 
         JSObject data = new JSObject();
-        data.put("format", "jpeg");
-        data.put("dataUrl", "data:image/jpeg;base64," + encoded);
-        data.put("exif", exif.toJson());
+        data.put("format", settings.getOutputFormat().getFormat());
+        data.put("dataUrl", dataUrl);
+        data.put("exif", exif.toJson(settings.getExifTags()));
+        putExtras(data, extras);
+        putMetrics(request, data, metrics);
         call.resolve(data);
     }
 
-    private void returnBase64(PluginCall call, ExifWrapper exif, ByteArrayOutputStream bitmapOutputStream) {
-        byte[] byteArray = bitmapOutputStream.toByteArray();
-        String encoded = Base64.encodeToString(byteArray, Base64.NO_WRAP);
+    private void returnBase64(
+        PluginCall call,
+        ImageRequest request,
+        ExifWrapper exif,
+        ImageOutputStream bitmapOutputStream,
+        JSObject extras,
+        ImageMetrics metrics
+    ) {
+        CameraSettings settings = request.getSettings();
+        long start = metrics.start();
+        String encoded = bitmapOutputStream.toBase64String();
+        metrics.end(ImageMetrics.STAGE_BASE64, start);
 
         JSObject data = new JSObject();
-        data.put("format", "jpeg");
+        data.put("format", settings.getOutputFormat().getFormat());
         data.put("base64String", encoded);
-        data.put("exif", exif.toJson());
+        data.put("exif", exif.toJson(settings.getExifTags()));
+        putExtras(data, extras);
+        putMetrics(request, data, metrics);
         call.resolve(data);
     }
 
@@ -828,12 +1735,16 @@ public class CameraPlugin extends Plugin {
         return permissionStates;
     }
 
-    private void editImage(PluginCall call, Uri uri, ByteArrayOutputStream bitmapOutputStream) {
+    private void editImage(PluginCall call, ImageRequest request, Uri uri, Bitmap bitmap) {
         try {
-            Uri tempImage = getTempImage(uri, bitmapOutputStream);
+            Uri tempImage = getTempImage(request, uri, bitmap, null);
             Intent editIntent = createEditIntent(tempImage);
             if (editIntent != null) {
-                startActivityForResult(call, editIntent, "processEditedImage");
+                String editedFileSavePath = new File(tempImage.getPath()).getAbsolutePath();
+                bridge.executeOnMainThread(() -> {
+                    imageEditedFileSavePath = editedFileSavePath;
+                    startActivityForResult(call, editIntent, "processEditedImage");
+                });
             } else {
                 call.reject(IMAGE_EDIT_ERROR);
             }
@@ -848,7 +1759,6 @@ public class CameraPlugin extends Plugin {
             Uri editUri = FileProvider.getUriForFile(getActivity(), getContext().getPackageName() + ".fileprovider", editFile);
             Intent editIntent = new Intent(Intent.ACTION_EDIT);
             editIntent.setDataAndType(editUri, "image/*");
-            imageEditedFileSavePath = editFile.getAbsolutePath();
             int flags = Intent.FLAG_GRANT_READ_URI_PERMISSION | Intent.FLAG_GRANT_WRITE_URI_PERMISSION;
             editIntent.addFlags(flags);
             editIntent.putExtra(MediaStore.EXTRA_OUTPUT, editUri);
@@ -906,5 +1816,28 @@ public class CameraPlugin extends Plugin {
         if (pickMultipleMedia != null) {
             pickMultipleMedia.unregister();
         }
+        if (imageProcessingExecutor != null) {
+            imageProcessingExecutor.shutdownNow();
+        }
+        // batches whose images were all still queued have no task left to reject them
+        for (Map.Entry<PluginCall, AtomicBoolean> batch : pendingImageBatches.entrySet()) {
+            if (batch.getValue().compareAndSet(false, true)) {
+                batch.getKey().reject(IMAGE_PROCESSING_CANCELLED);
+            }
+        }
+        pendingImageBatches.clear();
+        if (imageTaskExecutor != null) {
+            for (Runnable task : imageTaskExecutor.shutdownNow()) {
+                if (task instanceof ImageTask) {
+                    ((ImageTask) task).cancel();
+                }
+            }
+        }
+        if (memoryCallbacks != null) {
+            getContext().unregisterComponentCallbacks(memoryCallbacks);
+        }
+        if (bitmapPool != null) {
+            bitmapPool.clear();
+        }
     }
 }
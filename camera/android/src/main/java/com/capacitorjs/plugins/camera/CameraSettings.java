@@ -1,8 +1,11 @@
 package com.capacitorjs.plugins.camera;
 
+import android.graphics.Rect;
+
 public class CameraSettings {
 
     public static final int DEFAULT_QUALITY = 90;
+    public static final int MAX_QUALITY = 100;
     public static final boolean DEFAULT_SAVE_IMAGE_TO_GALLERY = false;
     public static final boolean DEFAULT_CORRECT_ORIENTATION = true;
 
@@ -15,6 +18,14 @@ public class CameraSettings {
     private int width = 0;
     private int height = 0;
     private CameraSource source = CameraSource.PROMPT;
+    private String[] exifTags = ExifWrapper.getExportedTags(ExifWrapper.EXIF_TAGS_ALL);
+    private boolean passthrough = false;
+    private CameraOutputFormat outputFormat = CameraOutputFormat.JPEG;
+    private int thumbnailSize = 0;
+    private long maxBytes = 0;
+    private boolean includeMetrics = false;
+    private ResamplingMode resampling = ResamplingMode.NEAREST;
+    private Rect crop = null;
 
     public CameraResultType getResultType() {
         return resultType;
@@ -87,4 +98,68 @@ public class CameraSettings {
     public void setSource(CameraSource source) {
         this.source = source;
     }
+
+    public String[] getExifTags() {
+        return exifTags;
+    }
+
+    public void setExifTags(String[] exifTags) {
+        this.exifTags = exifTags;
+    }
+
+    public boolean isPassthrough() {
+        return passthrough;
+    }
+
+    public void setPassthrough(boolean passthrough) {
+        this.passthrough = passthrough;
+    }
+
+    public CameraOutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    public void setOutputFormat(CameraOutputFormat outputFormat) {
+        this.outputFormat = outputFormat;
+    }
+
+    public int getThumbnailSize() {
+        return thumbnailSize;
+    }
+
+    public void setThumbnailSize(int thumbnailSize) {
+        this.thumbnailSize = thumbnailSize;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isIncludeMetrics() {
+        return includeMetrics;
+    }
+
+    public void setIncludeMetrics(boolean includeMetrics) {
+        this.includeMetrics = includeMetrics;
+    }
+
+    public ResamplingMode getResampling() {
+        return resampling;
+    }
+
+    public void setResampling(ResamplingMode resampling) {
+        this.resampling = resampling;
+    }
+
+    public Rect getCrop() {
+        return crop;
+    }
+
+    public void setCrop(Rect crop) {
+        this.crop = crop;
+    }
 }
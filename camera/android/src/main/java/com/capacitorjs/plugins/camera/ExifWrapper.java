@@ -4,11 +4,19 @@ import static androidx.exifinterface.media.ExifInterface.*;
 
 import androidx.exifinterface.media.ExifInterface;
 import com.getcapacitor.JSObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ExifWrapper {
 
     private final ExifInterface exif;
-    private final String[] attributes = new String[] {
+    private static final String[] ATTRIBUTES = new String[] {
         TAG_APERTURE_VALUE,
         TAG_ARTIST,
         TAG_BITS_PER_SAMPLE,
@@ -163,19 +171,75 @@ public class ExifWrapper {
         TAG_Y_RESOLUTION
     };
 
+    // Exif tag set options
+    static final String EXIF_TAGS_NONE = "none";
+    static final String EXIF_TAGS_ESSENTIAL = "essential";
+    static final String EXIF_TAGS_ALL = "all";
+
+    private static final String[] ESSENTIAL_ATTRIBUTES = new String[] {
+        TAG_DATETIME,
+        TAG_DATETIME_ORIGINAL,
+        TAG_OFFSET_TIME_ORIGINAL,
+        TAG_MAKE,
+        TAG_MODEL,
+        TAG_ORIENTATION,
+        TAG_IMAGE_WIDTH,
+        TAG_IMAGE_LENGTH,
+        TAG_PIXEL_X_DIMENSION,
+        TAG_PIXEL_Y_DIMENSION,
+        TAG_EXPOSURE_TIME,
+        TAG_F_NUMBER,
+        TAG_FLASH,
+        TAG_FOCAL_LENGTH,
+        TAG_PHOTOGRAPHIC_SENSITIVITY,
+        TAG_WHITE_BALANCE,
+        TAG_GPS_ALTITUDE,
+        TAG_GPS_ALTITUDE_REF,
+        TAG_GPS_DATESTAMP,
+        TAG_GPS_LATITUDE,
+        TAG_GPS_LATITUDE_REF,
+        TAG_GPS_LONGITUDE,
+        TAG_GPS_LONGITUDE_REF,
+        TAG_GPS_TIMESTAMP
+    };
+
+    // Tags holding embedded blobs, only exported when explicitly requested
+    private static final Set<String> LARGE_ATTRIBUTES = new HashSet<>(
+        Arrays.asList(TAG_MAKER_NOTE, TAG_ORF_THUMBNAIL_IMAGE, TAG_RW2_JPG_FROM_RAW, TAG_XMP)
+    );
+
+    private static final Set<String> KNOWN_ATTRIBUTES = new HashSet<>(Arrays.asList(ATTRIBUTES));
+
+    private static final String[] DEFAULT_EXPORTED_ATTRIBUTES = getAttributesExcluding(LARGE_ATTRIBUTES);
+
+    // Non-null attribute values, read once from the source image and shared by toJson and copyExif
+    private Map<String, String> values;
+
     public ExifWrapper(ExifInterface exif) {
         this.exif = exif;
     }
 
     public JSObject toJson() {
+        return toJson(DEFAULT_EXPORTED_ATTRIBUTES);
+    }
+
+    /**
+     * Export the given tags, skipping the ones that have no value
+     * @param tags the tags to export, see {@link #getExportedTags(String)}
+     * @return
+     */
+    public JSObject toJson(String[] tags) {
         JSObject ret = new JSObject();
 
         if (this.exif == null) {
             return ret;
         }
 
-        for (int i = 0; i < attributes.length; i++) {
-            p(ret, attributes[i]);
+        for (int i = 0; i < tags.length; i++) {
+            String value = values != null ? values.get(tags[i]) : exif.getAttribute(tags[i]);
+            if (value != null) {
+                ret.put(tags[i], value);
+            }
         }
 
         return ret;
@@ -187,19 +251,99 @@ public class ExifWrapper {
     }
 
     public void copyExif(String destFile) {
+        if (this.exif == null) {
+            return;
+        }
+
         try {
             ExifInterface destExif = new ExifInterface(destFile);
-            for (int i = 0; i < attributes.length; i++) {
-                String value = exif.getAttribute(attributes[i]);
-                if (value != null) {
-                    destExif.setAttribute(attributes[i], value);
-                }
+            for (Map.Entry<String, String> value : getValues().entrySet()) {
+                destExif.setAttribute(value.getKey(), value.getValue());
             }
             destExif.saveAttributes();
         } catch (Exception ex) {}
     }
 
+    /**
+     * Get the rotation needed to display the image "up", based on its orientation tag
+     * @return the rotation in degrees, 0 if the image does not need to be rotated
+     */
+    public int getRotationDegrees() {
+        if (this.exif == null) {
+            return 0;
+        }
+
+        final int orientation = exif.getAttributeInt(TAG_ORIENTATION, ORIENTATION_NORMAL);
+        if (orientation == ORIENTATION_ROTATE_90) {
+            return 90;
+        } else if (orientation == ORIENTATION_ROTATE_180) {
+            return 180;
+        } else if (orientation == ORIENTATION_ROTATE_270) {
+            return 270;
+        }
+        return 0;
+    }
+
     public void resetOrientation() {
+        if (this.exif == null) {
+            return;
+        }
+
         exif.resetOrientation();
+        values = null;
+    }
+
+    /**
+     * Get the tags to export for the given tag set. Unknown sets export the default tags,
+     * which are all the tags except the large ones like XMP data and thumbnails.
+     * @param tagSet one of "none", "essential" or "all"
+     * @return
+     */
+    public static String[] getExportedTags(String tagSet) {
+        if (EXIF_TAGS_NONE.equals(tagSet)) {
+            return new String[0];
+        } else if (EXIF_TAGS_ESSENTIAL.equals(tagSet)) {
+            return ESSENTIAL_ATTRIBUTES;
+        }
+        return DEFAULT_EXPORTED_ATTRIBUTES;
+    }
+
+    /**
+     * Get the tags to export from an explicit list of tag names, ignoring unknown names.
+     * Large tags are exported if they are part of the list.
+     * @param tags
+     * @return
+     */
+    public static String[] getExportedTags(List<String> tags) {
+        Set<String> exported = new LinkedHashSet<>();
+        for (String tag : tags) {
+            if (KNOWN_ATTRIBUTES.contains(tag)) {
+                exported.add(tag);
+            }
+        }
+        return exported.toArray(new String[0]);
+    }
+
+    private static String[] getAttributesExcluding(Set<String> excluded) {
+        List<String> included = new ArrayList<>(ATTRIBUTES.length);
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+            if (!excluded.contains(ATTRIBUTES[i])) {
+                included.add(ATTRIBUTES[i]);
+            }
+        }
+        return included.toArray(new String[0]);
+    }
+
+    private Map<String, String> getValues() {
+        if (values == null) {
+            values = new LinkedHashMap<>();
+            for (int i = 0; i < ATTRIBUTES.length; i++) {
+                String value = exif.getAttribute(ATTRIBUTES[i]);
+                if (value != null) {
+                    values.put(ATTRIBUTES[i], value);
+                }
+            }
+        }
+        return values;
     }
 }
@@ -0,0 +1,63 @@
+package com.capacitorjs.plugins.camera;
+
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Environment;
+import android.provider.MediaStore;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Writes already encoded images to the gallery. On Android 10+ the record is kept
+ * pending while it's written, so it only becomes visible to other apps once complete.
+ */
+public class GalleryWriter {
+
+    /**
+     * Insert a new image in the gallery and stream the encoded image into it
+     * @param resolver
+     * @param source the encoded image
+     * @param displayName
+     * @param mimeType
+     * @return the uri of the new MediaStore record
+     * @throws IOException
+     */
+    public static Uri write(ContentResolver resolver, InputStream source, String displayName, String mimeType) throws IOException {
+        ContentValues values = new ContentValues();
+        values.put(MediaStore.MediaColumns.DISPLAY_NAME, displayName);
+        values.put(MediaStore.MediaColumns.MIME_TYPE, mimeType);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            values.put(MediaStore.MediaColumns.RELATIVE_PATH, Environment.DIRECTORY_DCIM);
+            values.put(MediaStore.MediaColumns.IS_PENDING, 1);
+        } else {
+            values.put(MediaStore.Images.Media.DATE_TAKEN, System.currentTimeMillis());
+        }
+
+        Uri uri = resolver.insert(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, values);
+        if (uri == null) {
+            throw new IOException("Failed to create new MediaStore record.");
+        }
+
+        try {
+            try (OutputStream stream = resolver.openOutputStream(uri)) {
+                if (stream == null) {
+                    throw new IOException("Failed to open output stream.");
+                }
+                ImageUtils.copy(source, stream);
+            }
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                values.clear();
+                values.put(MediaStore.MediaColumns.IS_PENDING, 0);
+                resolver.update(uri, values, null, null);
+            }
+        } catch (IOException | RuntimeException ex) {
+            resolver.delete(uri, null, null);
+            throw ex;
+        }
+        return uri;
+    }
+}
@@ -0,0 +1,137 @@
+package com.capacitorjs.plugins.camera;
+
+import com.getcapacitor.JSObject;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timings and sizes of the processing of a single image. Stage timings are in
+ * nanoseconds and add up when a stage runs more than once, e.g. compress when
+ * searching for a quality that fits maxBytes. When disabled, nothing is recorded.
+ */
+public class ImageMetrics {
+
+    public static final String STAGE_DECODE = "decode";
+    public static final String STAGE_EXIF = "exif";
+    public static final String STAGE_TRANSFORM = "transform";
+    public static final String STAGE_COMPRESS = "compress";
+    public static final String STAGE_WRITE = "write";
+    public static final String STAGE_BASE64 = "base64";
+    public static final String STAGE_THUMBNAIL = "thumbnail";
+    public static final String STAGE_GALLERY = "gallery";
+
+    private final boolean enabled;
+    private final long startNanos;
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+    private long totalNanos = 0;
+    private long peakBitmapBytes = 0;
+    private int inputWidth = 0;
+    private int inputHeight = 0;
+    private int outputWidth = 0;
+    private int outputHeight = 0;
+
+    public ImageMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.startNanos = enabled ? System.nanoTime() : 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start timing a stage
+     * @return the start time to pass to {@link #end(String, long)}
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the time spent in a stage
+     * @param stage
+     * @param stageStartNanos the value returned by {@link #start()}
+     */
+    public void end(String stage, long stageStartNanos) {
+        if (enabled) {
+            long elapsed = System.nanoTime() - stageStartNanos;
+            Long previous = stageNanos.get(stage);
+            stageNanos.put(stage, previous != null ? previous + elapsed : elapsed);
+        }
+    }
+
+    /**
+     * Record the bytes used by the bitmaps alive at the same time
+     * @param bytes
+     */
+    public void recordBitmapBytes(long bytes) {
+        if (enabled && bytes > peakBitmapBytes) {
+            peakBitmapBytes = bytes;
+        }
+    }
+
+    public void setInputSize(int width, int height) {
+        inputWidth = width;
+        inputHeight = height;
+    }
+
+    public void setOutputSize(int width, int height) {
+        outputWidth = width;
+        outputHeight = height;
+    }
+
+    /**
+     * Stop the total time of the processing
+     */
+    public void finish() {
+        if (enabled) {
+            totalNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    public Map<String, Long> getStageNanos() {
+        return Collections.unmodifiableMap(stageNanos);
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getPeakBitmapBytes() {
+        return peakBitmapBytes;
+    }
+
+    public int getInputWidth() {
+        return inputWidth;
+    }
+
+    public int getInputHeight() {
+        return inputHeight;
+    }
+
+    public int getOutputWidth() {
+        return outputWidth;
+    }
+
+    public int getOutputHeight() {
+        return outputHeight;
+    }
+
+    public JSObject toJSObject() {
+        JSObject stages = new JSObject();
+        for (Map.Entry<String, Long> stage : stageNanos.entrySet()) {
+            stages.put(stage.getKey(), stage.getValue());
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("stages", stages);
+        ret.put("totalNanos", totalNanos);
+        ret.put("peakBitmapBytes", peakBitmapBytes);
+        ret.put("inputWidth", inputWidth);
+        ret.put("inputHeight", inputHeight);
+        ret.put("outputWidth", outputWidth);
+        ret.put("outputHeight", outputHeight);
+        return ret;
+    }
+}
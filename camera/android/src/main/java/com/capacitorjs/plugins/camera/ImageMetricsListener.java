@@ -0,0 +1,10 @@
+package com.capacitorjs.plugins.camera;
+
+/**
+ * Receives the metrics of every image processed by the plugin, e.g. to forward them to
+ * the host app's telemetry. Set it with {@link CameraPlugin#setImageMetricsListener(ImageMetricsListener)}.
+ * It's called on the thread that processed the image.
+ */
+public interface ImageMetricsListener {
+    void onImageMetrics(ImageMetrics metrics);
+}
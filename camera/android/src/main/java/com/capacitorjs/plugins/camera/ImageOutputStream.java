@@ -0,0 +1,86 @@
+package com.capacitorjs.plugins.camera;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A ByteArrayOutputStream holding an encoded image that can be converted to a
+ * base64 string straight from its internal buffer, without first copying it with
+ * toByteArray() and without any intermediate string concatenation.
+ */
+public class ImageOutputStream extends ByteArrayOutputStream {
+
+    private static final byte[] BASE64_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(
+        StandardCharsets.US_ASCII
+    );
+    private static final byte BASE64_PAD = '=';
+
+    public ImageOutputStream() {
+        super();
+    }
+
+    public ImageOutputStream(int size) {
+        super(size);
+    }
+
+    /**
+     * Encode the written bytes as base64, without line wraps
+     * @return the base64 encoded string
+     */
+    public String toBase64String() {
+        return toBase64String("");
+    }
+
+    /**
+     * Encode the written bytes as base64, without line wraps, preceded by the given prefix
+     * (e.g. "data:image/jpeg;base64,"). The prefix must only contain ASCII characters.
+     * @param prefix
+     * @return the prefix followed by the base64 encoded string
+     */
+    public synchronized String toBase64String(String prefix) {
+        int prefixLength = prefix.length();
+        byte[] out = new byte[prefixLength + getBase64Length(count)];
+        for (int i = 0; i < prefixLength; i++) {
+            out[i] = (byte) prefix.charAt(i);
+        }
+
+        int in = 0;
+        int pos = prefixLength;
+        int fullGroupsEnd = count - (count % 3);
+        while (in < fullGroupsEnd) {
+            int bits = ((buf[in++] & 0xff) << 16) | ((buf[in++] & 0xff) << 8) | (buf[in++] & 0xff);
+            out[pos++] = BASE64_ALPHABET[(bits >>> 18) & 0x3f];
+            out[pos++] = BASE64_ALPHABET[(bits >>> 12) & 0x3f];
+            out[pos++] = BASE64_ALPHABET[(bits >>> 6) & 0x3f];
+            out[pos++] = BASE64_ALPHABET[bits & 0x3f];
+        }
+
+        int remaining = count - fullGroupsEnd;
+        if (remaining > 0) {
+            int bits = (buf[in++] & 0xff) << 16;
+            if (remaining == 2) {
+                bits |= (buf[in] & 0xff) << 8;
+            }
+            out[pos++] = BASE64_ALPHABET[(bits >>> 18) & 0x3f];
+            out[pos++] = BASE64_ALPHABET[(bits >>> 12) & 0x3f];
+            out[pos++] = remaining == 2 ? BASE64_ALPHABET[(bits >>> 6) & 0x3f] : BASE64_PAD;
+            out[pos] = BASE64_PAD;
+        }
+
+        return new String(out, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Get a stream reading the written bytes, without copying them
+     * @return
+     */
+    public synchronized InputStream toInputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+
+    static int getBase64Length(int byteCount) {
+        return ((byteCount + 2) / 3) * 4;
+    }
+}
@@ -0,0 +1,45 @@
+package com.capacitorjs.plugins.camera;
+
+/**
+ * The state of a photo request, captured on the main thread before its image is processed
+ * in the background, so that a request started meanwhile can't change the settings, paths
+ * or files the processing uses.
+ */
+class ImageRequest {
+
+    private final CameraSettings settings;
+    private final String imageFileSavePath;
+    private final String imageEditedFileSavePath;
+    private final boolean edited;
+
+    ImageRequest(CameraSettings settings, String imageFileSavePath, String imageEditedFileSavePath, boolean edited) {
+        this.settings = settings;
+        this.imageFileSavePath = imageFileSavePath;
+        this.imageEditedFileSavePath = imageEditedFileSavePath;
+        this.edited = edited;
+    }
+
+    public CameraSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Get the file the camera wrote the photo to, null for picked images
+     * @return
+     */
+    public String getImageFileSavePath() {
+        return imageFileSavePath;
+    }
+
+    /**
+     * Get the file the photo was edited in, null if it wasn't edited
+     * @return
+     */
+    public String getImageEditedFileSavePath() {
+        return imageEditedFileSavePath;
+    }
+
+    public boolean isEdited() {
+        return edited;
+    }
+}
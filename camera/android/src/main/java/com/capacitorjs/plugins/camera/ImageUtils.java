@@ -1,19 +1,35 @@
 package com.capacitorjs.plugins.camera;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.database.Cursor;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
 import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
 import android.net.Uri;
 import android.os.Build;
+import android.os.ParcelFileDescriptor;
 import android.provider.MediaStore;
+import android.util.Size;
 import androidx.exifinterface.media.ExifInterface;
 import com.getcapacitor.Logger;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 public class ImageUtils {
 
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     /**
      * Resize an image to the given max width and max height. Constraint can be put
      * on one dimension, or both. Resize will always preserve aspect ratio.
@@ -35,9 +51,87 @@ public class ImageUtils {
      * @return a new, scaled Bitmap
      */
     private static Bitmap resizePreservingAspectRatio(Bitmap bitmap, final int desiredMaxWidth, final int desiredMaxHeight) {
-        int width = bitmap.getWidth();
-        int height = bitmap.getHeight();
+        int[] size = getScaledSize(bitmap.getWidth(), bitmap.getHeight(), desiredMaxWidth, desiredMaxHeight);
+        return Bitmap.createScaledBitmap(bitmap, size[0], size[1], false);
+    }
+
+    /**
+     * Resize an image to the given max width and max height with the given resampling mode,
+     * drawing it into a pooled bitmap if a pool is given. Constraint can be put on one
+     * dimension, or both. Resize will always preserve aspect ratio.
+     * @param bitmap
+     * @param desiredMaxWidth
+     * @param desiredMaxHeight
+     * @param pool the pool to take the resized bitmap from, may be null
+     * @param mode
+     * @return a new, scaled Bitmap, or the same Bitmap if its size does not change
+     */
+    public static Bitmap resize(
+        Bitmap bitmap,
+        final int desiredMaxWidth,
+        final int desiredMaxHeight,
+        final BitmapPool pool,
+        final ResamplingMode mode
+    ) {
+        if (pool == null && mode == ResamplingMode.NEAREST) {
+            return resize(bitmap, desiredMaxWidth, desiredMaxHeight);
+        }
+
+        int[] size = getScaledSize(bitmap.getWidth(), bitmap.getHeight(), desiredMaxWidth, desiredMaxHeight);
+        if (size[0] == bitmap.getWidth() && size[1] == bitmap.getHeight()) {
+            return bitmap;
+        }
 
+        Bitmap source = mode == ResamplingMode.PROGRESSIVE ? downscaleByHalves(bitmap, size[0], size[1], pool) : bitmap;
+        if (source.getWidth() == size[0] && source.getHeight() == size[1]) {
+            return source;
+        }
+
+        Matrix matrix = new Matrix();
+        matrix.setScale((float) size[0] / source.getWidth(), (float) size[1] / source.getHeight());
+        // not filtered in nearest mode, same as createScaledBitmap in resizePreservingAspectRatio
+        Paint paint = mode == ResamplingMode.NEAREST ? new Paint() : new Paint(Paint.FILTER_BITMAP_FLAG);
+        Bitmap result = draw(source, matrix, size[0], size[1], paint, pool);
+        if (source != bitmap) {
+            replace(source, result, pool);
+        }
+        return result;
+    }
+
+    /**
+     * Halve an image with filtering for as long as it stays at least as big as the given
+     * size, so that the final scale to that size is less than 2x and samples every pixel.
+     * @param bitmap
+     * @param width
+     * @param height
+     * @param pool the pool to take the halved bitmaps from, may be null
+     * @return the halved Bitmap, or the same Bitmap if it's less than twice the given size
+     */
+    private static Bitmap downscaleByHalves(final Bitmap bitmap, final int width, final int height, final BitmapPool pool) {
+        Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        Bitmap result = bitmap;
+        while (result.getWidth() / 2 >= width && result.getHeight() / 2 >= height) {
+            int halfWidth = result.getWidth() / 2;
+            int halfHeight = result.getHeight() / 2;
+            Matrix matrix = new Matrix();
+            matrix.setScale((float) halfWidth / result.getWidth(), (float) halfHeight / result.getHeight());
+            Bitmap half = draw(result, matrix, halfWidth, halfHeight, paint, pool);
+            // the intermediate steps are ours to release, the original is the caller's
+            result = result == bitmap ? half : replace(result, half, pool);
+        }
+        return result;
+    }
+
+    /**
+     * Compute the size of an image resized to the given max width and max height,
+     * preserving its aspect ratio. 0 is treated as 'no restriction' for either dimension.
+     * @param width
+     * @param height
+     * @param desiredMaxWidth
+     * @param desiredMaxHeight
+     * @return the new width and height
+     */
+    private static int[] getScaledSize(final int width, final int height, final int desiredMaxWidth, final int desiredMaxHeight) {
         // 0 is treated as 'no restriction'
         int maxHeight = desiredMaxHeight == 0 ? height : desiredMaxHeight;
         int maxWidth = desiredMaxWidth == 0 ? width : desiredMaxWidth;
@@ -50,59 +144,537 @@ public class ImageUtils {
             newWidth = (width * maxHeight) / height;
             newHeight = maxHeight;
         }
-        return Bitmap.createScaledBitmap(bitmap, Math.round(newWidth), Math.round(newHeight), false);
+        return new int[] { Math.round(newWidth), Math.round(newHeight) };
     }
 
     /**
-     * Transform an image with the given matrix
-     * @param bitmap
-     * @param matrix
-     * @return
+     * Decode an image file, subsampling it while decoding so that the resulting
+     * bitmap is no larger than needed to satisfy the given max width and max height,
+     * and decoding into a pooled bitmap when one is available.
+     * 0 is treated as 'no restriction' for either dimension.
+     * @param path
+     * @param desiredMaxWidth
+     * @param desiredMaxHeight
+     * @param pool the pool to reuse bitmaps from, may be null
+     * @return the decoded Bitmap, or null if the file could not be decoded
      */
-    private static Bitmap transform(final Bitmap bitmap, final Matrix matrix) {
-        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+    public static Bitmap decodeSampledBitmap(
+        final String path,
+        final int desiredMaxWidth,
+        final int desiredMaxHeight,
+        final BitmapPool pool
+    ) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        if (pool != null || desiredMaxWidth > 0 || desiredMaxHeight > 0) {
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(path, options);
+            prepareDecodeOptions(options, desiredMaxWidth, desiredMaxHeight, pool);
+        }
+
+        // decodeFile returns null instead of throwing when the pooled bitmap can't be reused
+        Bitmap bitmap = BitmapFactory.decodeFile(path, options);
+        if (bitmap == null && releaseInBitmap(options, pool)) {
+            bitmap = BitmapFactory.decodeFile(path, options);
+        }
+        return bitmap;
     }
 
     /**
-     * Correct the orientation of an image by reading its exif information and rotating
-     * the appropriate amount for portrait mode
-     * @param bitmap
+     * Decode an image from a content or file uri, subsampling it while decoding so that
+     * the resulting bitmap is no larger than needed to satisfy the given max width and
+     * max height, and decoding into a pooled bitmap when one is available.
+     * 0 is treated as 'no restriction' for either dimension.
+     * @param c
+     * @param imageUri
+     * @param desiredMaxWidth
+     * @param desiredMaxHeight
+     * @param pool the pool to reuse bitmaps from, may be null
+     * @return the decoded Bitmap, or null if the stream could not be decoded
+     * @throws IOException
+     */
+    public static Bitmap decodeSampledBitmap(
+        final Context c,
+        final Uri imageUri,
+        final int desiredMaxWidth,
+        final int desiredMaxHeight,
+        final BitmapPool pool
+    ) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        if (pool != null || desiredMaxWidth > 0 || desiredMaxHeight > 0) {
+            options.inJustDecodeBounds = true;
+            try (InputStream boundsStream = c.getContentResolver().openInputStream(imageUri)) {
+                BitmapFactory.decodeStream(boundsStream, null, options);
+            }
+            prepareDecodeOptions(options, desiredMaxWidth, desiredMaxHeight, pool);
+        }
+
+        try (InputStream imageStream = c.getContentResolver().openInputStream(imageUri)) {
+            return BitmapFactory.decodeStream(imageStream, null, options);
+        } catch (IllegalArgumentException ex) {
+            if (!releaseInBitmap(options, pool)) {
+                throw ex;
+            }
+        }
+
+        try (InputStream imageStream = c.getContentResolver().openInputStream(imageUri)) {
+            return BitmapFactory.decodeStream(imageStream, null, options);
+        }
+    }
+
+    /**
+     * Decode only a region of an image from a content or file uri, subsampling it while
+     * decoding so that the resulting bitmap is no larger than needed to satisfy the given
+     * max width and max height. The region is given in the coordinates of the upright image
+     * and is clipped to its bounds. The decoded bitmap is not rotated, its orientation is
+     * still to be corrected like the one of a fully decoded image.
+     * 0 is treated as 'no restriction' for either dimension.
+     * @param c
      * @param imageUri
+     * @param crop the region to decode, in the coordinates of the upright image
+     * @param orientation the rotation of the image in degrees, from its exif data
+     * @param desiredMaxWidth
+     * @param desiredMaxHeight
+     * @param pool the pool to reuse bitmaps from, may be null
+     * @return the decoded region, or null if it could not be decoded
+     * @throws IOException if the image format doesn't support region decoding, or the
+     * region is outside of the image
+     */
+    public static Bitmap decodeSampledRegion(
+        final Context c,
+        final Uri imageUri,
+        final Rect crop,
+        final int orientation,
+        final int desiredMaxWidth,
+        final int desiredMaxHeight,
+        final BitmapPool pool
+    ) throws IOException {
+        BitmapRegionDecoder decoder;
+        try (InputStream stream = c.getContentResolver().openInputStream(imageUri)) {
+            decoder = newRegionDecoder(stream);
+        }
+        if (decoder == null) {
+            throw new IOException("Unable to decode a region of " + imageUri);
+        }
+
+        try {
+            Rect region = toSourceRect(crop, orientation, decoder.getWidth(), decoder.getHeight());
+            if (!region.intersect(0, 0, decoder.getWidth(), decoder.getHeight())) {
+                throw new IOException("Crop rectangle is outside of the image");
+            }
+
+            // the region plays the part of the decoded bounds
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.outWidth = region.width();
+            options.outHeight = region.height();
+            prepareDecodeOptions(options, desiredMaxWidth, desiredMaxHeight, pool);
+
+            try {
+                return decoder.decodeRegion(region, options);
+            } catch (IllegalArgumentException ex) {
+                if (!releaseInBitmap(options, pool)) {
+                    throw ex;
+                }
+                return decoder.decodeRegion(region, options);
+            }
+        } finally {
+            decoder.recycle();
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static BitmapRegionDecoder newRegionDecoder(final InputStream stream) throws IOException {
+        if (stream == null) {
+            return null;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            return BitmapRegionDecoder.newInstance(stream);
+        }
+        return BitmapRegionDecoder.newInstance(stream, false);
+    }
+
+    /**
+     * Map a rectangle of the upright image to the stored image, which is displayed rotated
+     * clockwise by the given degrees
+     * @param rect the rectangle in the coordinates of the upright image
+     * @param orientation the clockwise rotation in degrees, a multiple of 90
+     * @param width the width of the stored image
+     * @param height the height of the stored image
+     * @return the rectangle in the coordinates of the stored image
+     */
+    static Rect toSourceRect(final Rect rect, final int orientation, final int width, final int height) {
+        int[] bounds = toSourceBounds(rect.left, rect.top, rect.right, rect.bottom, orientation, width, height);
+        return new Rect(bounds[0], bounds[1], bounds[2], bounds[3]);
+    }
+
+    /**
+     * Map the bounds of a rectangle of the upright image to the stored image, see
+     * {@link #toSourceRect(Rect, int, int, int)}
+     * @return the left, top, right and bottom bounds in the coordinates of the stored image
+     */
+    static int[] toSourceBounds(
+        final int left,
+        final int top,
+        final int right,
+        final int bottom,
+        final int orientation,
+        final int width,
+        final int height
+    ) {
+        switch (orientation) {
+            case 90:
+                return new int[] { top, height - right, bottom, height - left };
+            case 180:
+                return new int[] { width - right, height - bottom, width - left, height - top };
+            case 270:
+                return new int[] { width - bottom, left, width - top, right };
+            default:
+                return new int[] { left, top, right, bottom };
+        }
+    }
+
+    /**
+     * Set up the decode options after the bounds of the image were decoded: pick the
+     * sample size and, if a pool is given, a pooled bitmap big enough to decode into.
+     * @param options
+     * @param desiredMaxWidth
+     * @param desiredMaxHeight
+     * @param pool
+     */
+    private static void prepareDecodeOptions(
+        final BitmapFactory.Options options,
+        final int desiredMaxWidth,
+        final int desiredMaxHeight,
+        final BitmapPool pool
+    ) {
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, desiredMaxWidth, desiredMaxHeight);
+        options.inJustDecodeBounds = false;
+        if (pool != null && options.outWidth > 0 && options.outHeight > 0) {
+            int sampledWidth = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+            int sampledHeight = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+            options.inMutable = true;
+            options.inBitmap = pool.getReusable(BitmapPool.getByteCount(sampledWidth, sampledHeight, options.inPreferredConfig));
+        }
+    }
+
+    /**
+     * Give the pooled bitmap of a failed decode back to the pool, so that the decode can
+     * be retried without it.
+     * @param options
+     * @param pool
+     * @return whether there was a pooled bitmap to give back
+     */
+    private static boolean releaseInBitmap(final BitmapFactory.Options options, final BitmapPool pool) {
+        if (pool == null || options.inBitmap == null) {
+            return false;
+        }
+        pool.release(options.inBitmap);
+        options.inBitmap = null;
+        return true;
+    }
+
+    /**
+     * Get the budget left for the encoded image once the data added to its file, like the
+     * exif tags, is taken off
+     * @param maxBytes the budget of the whole file
+     * @param fileBytes the size of the file
+     * @param imageBytes the size of the encoded image in the file
+     * @return the budget of the encoded image, at least 1
+     */
+    static long getImageBudget(final long maxBytes, final long fileBytes, final long imageBytes) {
+        long addedBytes = Math.max(0, fileBytes - imageBytes);
+        return Math.max(1, maxBytes - addedBytes);
+    }
+
+    /**
+     * Calculate the largest power of two sample size that still yields an image at least
+     * as big as the one {@link #resize(Bitmap, int, int)} would produce. As the image may
+     * later be rotated by {@link #rotateAndResize(Bitmap, int, int, int, BitmapPool, ResamplingMode)},
+     * both orientations are considered and the smaller sample size is used.
+     * @param width
+     * @param height
+     * @param desiredMaxWidth
+     * @param desiredMaxHeight
+     * @return the sample size to use for BitmapFactory.Options.inSampleSize
+     */
+    static int calculateInSampleSize(final int width, final int height, final int desiredMaxWidth, final int desiredMaxHeight) {
+        if (width <= 0 || height <= 0 || (desiredMaxWidth <= 0 && desiredMaxHeight <= 0)) {
+            return 1;
+        }
+        return Math.min(
+            calculateInSampleSizeForBounds(width, height, desiredMaxWidth, desiredMaxHeight),
+            calculateInSampleSizeForBounds(height, width, desiredMaxWidth, desiredMaxHeight)
+        );
+    }
+
+    private static int calculateInSampleSizeForBounds(
+        final int width,
+        final int height,
+        final int desiredMaxWidth,
+        final int desiredMaxHeight
+    ) {
+        // never decode smaller than what resizePreservingAspectRatio will produce
+        int[] size = getScaledSize(width, height, Math.max(desiredMaxWidth, 0), Math.max(desiredMaxHeight, 0));
+
+        int inSampleSize = 1;
+        while ((width / (inSampleSize * 2)) >= size[0] && (height / (inSampleSize * 2)) >= size[1]) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * Correct the orientation of an image and resize it to the given max width and max height
+     * with the given resampling mode, drawing it into a pooled bitmap if a pool is given.
+     * 0 is treated as 'no restriction' for either dimension.
+     * @param bitmap
      * @param exif
-     * @return
+     * @param desiredMaxWidth
+     * @param desiredMaxHeight
+     * @param pool the pool to take the resulting bitmap from, may be null
+     * @param mode
+     * @return a new, rotated and scaled Bitmap, or the same Bitmap if nothing had to change
      */
-    public static Bitmap correctOrientation(final Context c, final Bitmap bitmap, final Uri imageUri, ExifWrapper exif) throws IOException {
-        final int orientation = getOrientation(c, imageUri);
+    public static Bitmap correctOrientationAndResize(
+        final Bitmap bitmap,
+        ExifWrapper exif,
+        final int desiredMaxWidth,
+        final int desiredMaxHeight,
+        final BitmapPool pool,
+        final ResamplingMode mode
+    ) {
+        final int orientation = exif.getRotationDegrees();
+        Bitmap result = rotateAndResize(bitmap, orientation, desiredMaxWidth, desiredMaxHeight, pool, mode);
+
         if (orientation != 0) {
-            Matrix matrix = new Matrix();
-            matrix.postRotate(orientation);
             exif.resetOrientation();
-            return transform(bitmap, matrix);
-        } else {
-            return bitmap;
         }
+        return result;
     }
 
-    private static int getOrientation(final Context c, final Uri imageUri) throws IOException {
-        int result = 0;
+    /**
+     * Rotate an image by the given degrees and resize it to the given max width and max
+     * height in a single pass with the given resampling mode, drawing it into a pooled
+     * bitmap if a pool is given.
+     * 0 is treated as 'no restriction' for either dimension.
+     * @param bitmap
+     * @param orientation the clockwise rotation in degrees, a multiple of 90
+     * @param desiredMaxWidth
+     * @param desiredMaxHeight
+     * @param pool the pool to take the resulting bitmap from, may be null
+     * @param mode
+     * @return a new, rotated and scaled Bitmap, or the same Bitmap if nothing had to change
+     */
+    public static Bitmap rotateAndResize(
+        final Bitmap bitmap,
+        final int orientation,
+        final int desiredMaxWidth,
+        final int desiredMaxHeight,
+        final BitmapPool pool,
+        final ResamplingMode mode
+    ) {
+        if (orientation == 0) {
+            return resize(bitmap, desiredMaxWidth, desiredMaxHeight, pool, mode);
+        }
+
+        final boolean swapDimensions = orientation == 90 || orientation == 270;
+        final int rotatedWidth = swapDimensions ? bitmap.getHeight() : bitmap.getWidth();
+        final int rotatedHeight = swapDimensions ? bitmap.getWidth() : bitmap.getHeight();
+        final int[] size = getScaledSize(rotatedWidth, rotatedHeight, desiredMaxWidth, desiredMaxHeight);
 
-        try (InputStream iStream = c.getContentResolver().openInputStream(imageUri)) {
-            final ExifInterface exifInterface = new ExifInterface(iStream);
+        // halve before rotating, in the orientation of the source
+        Bitmap source = bitmap;
+        if (mode == ResamplingMode.PROGRESSIVE) {
+            source = downscaleByHalves(bitmap, swapDimensions ? size[1] : size[0], swapDimensions ? size[0] : size[1], pool);
+        }
+        final int sourceWidth = swapDimensions ? source.getHeight() : source.getWidth();
+        final int sourceHeight = swapDimensions ? source.getWidth() : source.getHeight();
+
+        // rotate around the origin, move the result back into view and scale it to the target size
+        Matrix matrix = new Matrix();
+        matrix.postRotate(orientation);
+        RectF bounds = new RectF(0, 0, source.getWidth(), source.getHeight());
+        matrix.mapRect(bounds);
+        matrix.postTranslate(-bounds.left, -bounds.top);
+        matrix.postScale((float) size[0] / sourceWidth, (float) size[1] / sourceHeight);
 
-            final int orientation = exifInterface.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        Paint paint = mode == ResamplingMode.NEAREST ? new Paint() : new Paint(Paint.FILTER_BITMAP_FLAG);
+        Bitmap result = draw(source, matrix, size[0], size[1], paint, pool);
+        if (source != bitmap) {
+            replace(source, result, pool);
+        }
+        return result;
+    }
 
-            if (orientation == ExifInterface.ORIENTATION_ROTATE_90) {
-                result = 90;
-            } else if (orientation == ExifInterface.ORIENTATION_ROTATE_180) {
-                result = 180;
-            } else if (orientation == ExifInterface.ORIENTATION_ROTATE_270) {
-                result = 270;
+    /**
+     * Create an upright thumbnail of an image that fits in a square of the given size.
+     * On Android 10+ the thumbnail of content uris is loaded from the provider, which
+     * usually has it cached, otherwise the image is decoded subsampled and rotated.
+     * @param c
+     * @param imageUri
+     * @param size the max width and height of the thumbnail
+     * @param orientation the rotation of the image in degrees, from its exif data
+     * @param pool the pool to reuse bitmaps from, may be null
+     * @param mode the resampling mode to scale the thumbnail with
+     * @return the thumbnail, or null if the image could not be decoded
+     * @throws IOException
+     */
+    public static Bitmap decodeThumbnail(
+        final Context c,
+        final Uri imageUri,
+        final int size,
+        final int orientation,
+        final BitmapPool pool,
+        final ResamplingMode mode
+    ) throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && "content".equals(imageUri.getScheme())) {
+            try {
+                Bitmap thumbnail = c.getContentResolver().loadThumbnail(imageUri, new Size(size, size), null);
+                return replace(thumbnail, resize(thumbnail, size, size, pool, mode), pool);
+            } catch (IOException | UnsupportedOperationException ex) {
+                Logger.debug("Unable to load thumbnail from provider, decoding image instead");
             }
         }
 
+        Bitmap bitmap = decodeSampledBitmap(c, imageUri, size, size, pool);
+        if (bitmap == null) {
+            return null;
+        }
+        return replace(bitmap, rotateAndResize(bitmap, orientation, size, size, pool, mode), pool);
+    }
+
+    private static Bitmap replace(final Bitmap bitmap, final Bitmap newBitmap, final BitmapPool pool) {
+        if (bitmap != newBitmap) {
+            if (pool != null) {
+                pool.release(bitmap);
+            } else {
+                bitmap.recycle();
+            }
+        }
+        return newBitmap;
+    }
+
+    /**
+     * Draw an image with the given matrix into a new bitmap of the given size
+     * @param bitmap
+     * @param matrix
+     * @param width
+     * @param height
+     * @param paint
+     * @param pool the pool to take the new bitmap from, may be null
+     * @return
+     */
+    private static Bitmap draw(
+        final Bitmap bitmap,
+        final Matrix matrix,
+        final int width,
+        final int height,
+        final Paint paint,
+        final BitmapPool pool
+    ) {
+        Bitmap.Config config = bitmap.getConfig() != null ? bitmap.getConfig() : Bitmap.Config.ARGB_8888;
+        Bitmap result = pool != null ? pool.get(width, height, config) : Bitmap.createBitmap(width, height, config);
+        result.setHasAlpha(bitmap.hasAlpha());
+        Canvas canvas = new Canvas(result);
+        canvas.drawBitmap(bitmap, matrix, paint);
         return result;
     }
 
+    /**
+     * Get the mime type of an image by only decoding its header
+     * @param c
+     * @param imageUri
+     * @return the mime type, or null if it could not be determined
+     * @throws IOException
+     */
+    public static String getMimeType(final Context c, final Uri imageUri) throws IOException {
+        return decodeBounds(c, imageUri).outMimeType;
+    }
+
+    /**
+     * Get the width and height of an image by only decoding its header
+     * @param c
+     * @param imageUri
+     * @return the width and height, -1 if they could not be determined
+     * @throws IOException
+     */
+    public static int[] getImageSize(final Context c, final Uri imageUri) throws IOException {
+        BitmapFactory.Options options = decodeBounds(c, imageUri);
+        return new int[] { options.outWidth, options.outHeight };
+    }
+
+    private static BitmapFactory.Options decodeBounds(final Context c, final Uri imageUri) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream stream = c.getContentResolver().openInputStream(imageUri)) {
+            BitmapFactory.decodeStream(stream, null, options);
+        }
+        return options;
+    }
+
+    /**
+     * Copy an image to the given file without decoding it. If the image is backed by a
+     * regular file, its content is transferred channel to channel, otherwise it is streamed.
+     * @param c
+     * @param imageUri
+     * @param destFile
+     * @throws IOException
+     */
+    public static void copyImage(final Context c, final Uri imageUri, final File destFile) throws IOException {
+        ParcelFileDescriptor pfd = c.getContentResolver().openFileDescriptor(imageUri, "r");
+        if (pfd != null && pfd.getStatSize() >= 0) {
+            try (
+                FileInputStream in = new ParcelFileDescriptor.AutoCloseInputStream(pfd);
+                FileOutputStream out = new FileOutputStream(destFile)
+            ) {
+                FileChannel inChannel = in.getChannel();
+                FileChannel outChannel = out.getChannel();
+                long size = inChannel.size();
+                long position = 0;
+                while (position < size) {
+                    position += inChannel.transferTo(position, size - position, outChannel);
+                }
+            }
+            return;
+        }
+        if (pfd != null) {
+            pfd.close();
+        }
+
+        try (InputStream in = c.getContentResolver().openInputStream(imageUri); OutputStream out = new FileOutputStream(destFile)) {
+            copy(in, out);
+        }
+    }
+
+    /**
+     * Read the encoded bytes of an image without decoding it
+     * @param c
+     * @param imageUri
+     * @return a stream holding the image bytes
+     * @throws IOException
+     */
+    public static ImageOutputStream readImage(final Context c, final Uri imageUri) throws IOException {
+        long length = AssetFileDescriptor.UNKNOWN_LENGTH;
+        try (AssetFileDescriptor afd = c.getContentResolver().openAssetFileDescriptor(imageUri, "r")) {
+            if (afd != null) {
+                length = afd.getLength();
+            }
+        }
+
+        ImageOutputStream out = length > 0 && length < Integer.MAX_VALUE ? new ImageOutputStream((int) length) : new ImageOutputStream();
+        try (InputStream in = c.getContentResolver().openInputStream(imageUri)) {
+            copy(in, out);
+        }
+        return out;
+    }
+
+    static void copy(final InputStream in, final OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            out.write(buffer, 0, len);
+        }
+    }
+
     public static ExifWrapper getExifData(final Context c, final Bitmap bitmap, final Uri imageUri) {
         InputStream stream = null;
         try {
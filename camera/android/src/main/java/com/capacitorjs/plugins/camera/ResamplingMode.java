@@ -0,0 +1,41 @@
+package com.capacitorjs.plugins.camera;
+
+/**
+ * How images are scaled down when resizing, with or without correcting their orientation.
+ */
+public enum ResamplingMode {
+    /**
+     * A single unfiltered pass. Fastest, but aliases badly on large reductions.
+     */
+    NEAREST("nearest"),
+    /**
+     * A single bilinear filtered pass. Smooth for reductions up to 2x, it still skips
+     * source pixels on larger ones.
+     */
+    BILINEAR("bilinear"),
+    /**
+     * Repeated filtered 2x reductions followed by a final filtered scale, so every pass
+     * samples all source pixels. The halving steps only touch a third of the pixels of the
+     * first one in total, so it costs little more than a single filtered pass.
+     */
+    PROGRESSIVE("progressive");
+
+    private String option;
+
+    ResamplingMode(String option) {
+        this.option = option;
+    }
+
+    public String getOption() {
+        return option;
+    }
+
+    public static ResamplingMode fromOption(String option) {
+        for (ResamplingMode mode : values()) {
+            if (mode.option.equals(option)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown resampling mode: " + option);
+    }
+}
@@ -0,0 +1,133 @@
+package com.capacitorjs.plugins.camera;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The bookkeeping of {@link BitmapPool}: items bucketed by size, holding at most maxBytes
+ * worth of items and evicting the least recently released ones first.
+ */
+abstract class SizeBucketPool<T> {
+
+    // Pooled items are only reused for requests needing at least 1/MAX_SIZE_MULTIPLE of their size
+    static final int MAX_SIZE_MULTIPLE = 4;
+
+    private final long maxBytes;
+    private final TreeMap<Integer, ArrayDeque<T>> buckets = new TreeMap<>();
+    private final LinkedHashSet<T> lru = new LinkedHashSet<>();
+    private long currentBytes = 0;
+    private long evictionCount = 0;
+
+    SizeBucketPool(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get the size of an item, which must not change while it is pooled
+     * @param item
+     * @return
+     */
+    abstract int getByteCount(T item);
+
+    /**
+     * Called with every item evicted or cleared from the pool
+     * @param item
+     */
+    abstract void onRemoved(T item);
+
+    /**
+     * Take the smallest pooled item that can hold at least the given number of bytes
+     * @param byteCount
+     * @return the pooled item, or null if none is big enough
+     */
+    synchronized T take(int byteCount) {
+        Map.Entry<Integer, ArrayDeque<T>> entry = buckets.ceilingEntry(byteCount);
+        if (entry == null || entry.getKey() > (long) byteCount * MAX_SIZE_MULTIPLE) {
+            return null;
+        }
+
+        T item = entry.getValue().pop();
+        if (entry.getValue().isEmpty()) {
+            buckets.remove(entry.getKey());
+        }
+        lru.remove(item);
+        currentBytes -= entry.getKey();
+        return item;
+    }
+
+    /**
+     * Pool an item, evicting the least recently pooled ones until the pool fits maxBytes
+     * @param item
+     * @return false if the item is bigger than the whole pool and was not pooled
+     */
+    synchronized boolean put(T item) {
+        int byteCount = getByteCount(item);
+        if (byteCount > maxBytes) {
+            return false;
+        }
+        if (!lru.add(item)) {
+            return true;
+        }
+
+        ArrayDeque<T> bucket = buckets.get(byteCount);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            buckets.put(byteCount, bucket);
+        }
+        bucket.push(item);
+        currentBytes += byteCount;
+
+        Iterator<T> oldest = lru.iterator();
+        while (currentBytes > maxBytes && oldest.hasNext()) {
+            T evicted = oldest.next();
+            oldest.remove();
+            removeFromBucket(evicted);
+            onRemoved(evicted);
+            evictionCount++;
+        }
+        return true;
+    }
+
+    synchronized boolean contains(T item) {
+        return lru.contains(item);
+    }
+
+    /**
+     * Remove every pooled item
+     */
+    synchronized void clear() {
+        for (T item : lru) {
+            onRemoved(item);
+        }
+        lru.clear();
+        buckets.clear();
+        currentBytes = 0;
+    }
+
+    synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private void removeFromBucket(T item) {
+        int byteCount = getByteCount(item);
+        ArrayDeque<T> bucket = buckets.get(byteCount);
+        if (bucket != null) {
+            bucket.remove(item);
+            if (bucket.isEmpty()) {
+                buckets.remove(byteCount);
+            }
+        }
+        currentBytes -= byteCount;
+    }
+}
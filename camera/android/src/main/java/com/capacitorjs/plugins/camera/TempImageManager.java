@@ -0,0 +1,127 @@
+package com.capacitorjs.plugins.camera;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Manages the directory holding the processed images returned to the caller.
+ * The images are kept within a byte budget and a max age, evicting the least
+ * recently written ones first. Images written in the last minute are never
+ * evicted by {@link #trim()}, so a result that was just returned stays readable.
+ */
+public class TempImageManager {
+
+    private static final long MIN_AGE_MILLIS = 60 * 1000;
+
+    private final File directory;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+
+    public TempImageManager(File directory, long maxBytes, long maxAgeMillis) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Get the directory to write temp images to, creating it if needed
+     * @return
+     */
+    public File getDirectory() {
+        directory.mkdirs();
+        return directory;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    /**
+     * Get the number of temp images and the bytes they use
+     * @return
+     */
+    public synchronized Usage getUsage() {
+        long bytes = 0;
+        int count = 0;
+        for (File file : listFiles()) {
+            bytes += file.length();
+            count++;
+        }
+        return new Usage(bytes, count);
+    }
+
+    /**
+     * Delete the temp images older than the max age, then the oldest ones until the
+     * rest fits in the byte budget
+     * @return the usage after trimming
+     */
+    public synchronized Usage trim() {
+        File[] files = listFiles();
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+
+        long now = System.currentTimeMillis();
+        long bytes = 0;
+        for (File file : files) {
+            bytes += file.length();
+        }
+
+        int count = files.length;
+        for (File file : files) {
+            long age = now - file.lastModified();
+            if (age < MIN_AGE_MILLIS || (age <= maxAgeMillis && bytes <= maxBytes)) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                bytes -= length;
+                count--;
+            }
+        }
+        return new Usage(bytes, count);
+    }
+
+    /**
+     * Delete every temp image
+     * @return the usage after purging, which only counts the images that could not be deleted
+     */
+    public synchronized Usage purge() {
+        long bytes = 0;
+        int count = 0;
+        for (File file : listFiles()) {
+            long length = file.length();
+            if (!file.delete()) {
+                bytes += length;
+                count++;
+            }
+        }
+        return new Usage(bytes, count);
+    }
+
+    private File[] listFiles() {
+        File[] files = directory.listFiles(File::isFile);
+        return files != null ? files : new File[0];
+    }
+
+    public static class Usage {
+
+        private final long bytes;
+        private final int count;
+
+        Usage(long bytes, int count) {
+            this.bytes = bytes;
+            this.count = count;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
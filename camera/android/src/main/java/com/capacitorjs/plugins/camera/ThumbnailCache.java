@@ -0,0 +1,191 @@
+package com.capacitorjs.plugins.camera;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A disk cache of thumbnail files, holding at most maxBytes worth of thumbnails and
+ * evicting the least recently used ones first. Thumbnails are keyed by the uri of
+ * the image, its version (last modified time, or size if unknown) and the thumbnail
+ * size and format, so a changed image never gets a stale thumbnail.
+ */
+public class ThumbnailCache {
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxBytes;
+    // file names to sizes, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes = 0;
+    private boolean loaded = false;
+
+    public ThumbnailCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get the cache file name of the thumbnail of an image
+     * @param c
+     * @param imageUri
+     * @param size
+     * @param extension
+     * @return the file name, or null if the version of the image can't be determined
+     */
+    public static String getFileName(Context c, Uri imageUri, int size, String extension) {
+        String version = getVersion(c, imageUri);
+        if (version == null) {
+            return null;
+        }
+        String key = imageUri.toString() + "|" + version + "|" + size;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            StringBuilder name = new StringBuilder();
+            for (byte b : digest.digest(key.getBytes(StandardCharsets.UTF_8))) {
+                name.append(String.format("%02x", b));
+            }
+            return name.append('.').append(extension).toString();
+        } catch (NoSuchAlgorithmException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Get a cached thumbnail, marking it as recently used
+     * @param fileName
+     * @return the thumbnail file, or null if it's not cached
+     */
+    public synchronized File get(String fileName) {
+        load();
+        if (!entries.containsKey(fileName)) {
+            return null;
+        }
+        File file = new File(directory, fileName);
+        if (!file.exists()) {
+            currentBytes -= entries.remove(fileName);
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    /**
+     * Create a temporary file in the cache directory to write a new thumbnail to,
+     * which is then added to the cache with {@link #put(String, File)}
+     * @param fileName
+     * @return
+     * @throws IOException
+     */
+    public File createTempFile(String fileName) throws IOException {
+        synchronized (this) {
+            load();
+        }
+        return File.createTempFile(fileName, TEMP_FILE_SUFFIX, directory);
+    }
+
+    /**
+     * Add a thumbnail to the cache, evicting the least recently used ones if the cache
+     * grows over its budget
+     * @param fileName
+     * @param tempFile the file the thumbnail was written to
+     * @return the cached thumbnail file
+     * @throws IOException
+     */
+    public synchronized File put(String fileName, File tempFile) throws IOException {
+        load();
+        File file = new File(directory, fileName);
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("Unable to store thumbnail " + fileName);
+        }
+
+        Long previousBytes = entries.put(fileName, file.length());
+        if (previousBytes != null) {
+            currentBytes -= previousBytes;
+        }
+        currentBytes += file.length();
+
+        Iterator<Map.Entry<String, Long>> oldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && oldest.hasNext()) {
+            Map.Entry<String, Long> entry = oldest.next();
+            if (entry.getKey().equals(fileName)) {
+                continue;
+            }
+            new File(directory, entry.getKey()).delete();
+            currentBytes -= entry.getValue();
+            oldest.remove();
+        }
+        return file;
+    }
+
+    public synchronized long getCurrentBytes() {
+        load();
+        return currentBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Read the thumbnails left by previous sessions, oldest first, and clean up
+     * temporary files of thumbnails that were never completed
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        directory.mkdirs();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+                file.delete();
+            } else {
+                entries.put(file.getName(), file.length());
+                currentBytes += file.length();
+            }
+        }
+    }
+
+    private static String getVersion(Context c, Uri imageUri) {
+        if ("file".equals(imageUri.getScheme())) {
+            File file = new File(imageUri.getPath());
+            return file.exists() ? "m" + file.lastModified() : null;
+        }
+        Long lastModified = queryLong(c, imageUri, MediaStore.MediaColumns.DATE_MODIFIED);
+        if (lastModified != null) {
+            return "m" + lastModified;
+        }
+        Long size = queryLong(c, imageUri, OpenableColumns.SIZE);
+        return size != null ? "s" + size : null;
+    }
+
+    private static Long queryLong(Context c, Uri imageUri, String column) {
+        try (Cursor cursor = c.getContentResolver().query(imageUri, new String[] { column }, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getLong(0);
+            }
+        } catch (RuntimeException ex) {
+            // the provider doesn't support this column
+        }
+        return null;
+    }
+}
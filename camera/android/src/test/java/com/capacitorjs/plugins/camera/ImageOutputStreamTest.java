@@ -0,0 +1,73 @@
+package com.capacitorjs.plugins.camera;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import org.junit.Test;
+
+public class ImageOutputStreamTest {
+
+    @Test
+    public void base64MatchesTheJdkEncoderForEveryPadding() {
+        Random random = new Random(42);
+        for (int length = 0; length < 64; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            ImageOutputStream stream = new ImageOutputStream();
+            stream.write(bytes, 0, length);
+
+            assertEquals(Base64.getEncoder().encodeToString(bytes), stream.toBase64String());
+        }
+    }
+
+    @Test
+    public void base64MatchesTheJdkEncoderForLargeImages() {
+        byte[] bytes = new byte[3 * 1024 * 1024 + 1];
+        new Random(42).nextBytes(bytes);
+        ImageOutputStream stream = new ImageOutputStream(1024);
+        stream.write(bytes, 0, bytes.length);
+
+        assertEquals(Base64.getEncoder().encodeToString(bytes), stream.toBase64String());
+    }
+
+    @Test
+    public void base64IsPrecededByThePrefix() {
+        byte[] bytes = { (byte) 0xff, (byte) 0xd8, (byte) 0xff, (byte) 0xe0 };
+        ImageOutputStream stream = new ImageOutputStream();
+        stream.write(bytes, 0, bytes.length);
+
+        assertEquals("data:image/jpeg;base64,/9j/4A==", stream.toBase64String("data:image/jpeg;base64,"));
+        assertEquals("data:image/jpeg;base64,", new ImageOutputStream().toBase64String("data:image/jpeg;base64,"));
+    }
+
+    @Test
+    public void base64LengthIncludesThePadding() {
+        assertEquals(0, ImageOutputStream.getBase64Length(0));
+        assertEquals(4, ImageOutputStream.getBase64Length(1));
+        assertEquals(4, ImageOutputStream.getBase64Length(3));
+        assertEquals(8, ImageOutputStream.getBase64Length(4));
+        assertEquals(1398104, ImageOutputStream.getBase64Length(1024 * 1024));
+    }
+
+    @Test
+    public void inputStreamReadsTheWrittenBytes() throws IOException {
+        byte[] bytes = new byte[10000];
+        new Random(42).nextBytes(bytes);
+        ImageOutputStream stream = new ImageOutputStream(16);
+        stream.write(bytes, 0, bytes.length);
+
+        byte[] read = new byte[bytes.length + 1];
+        int count = 0;
+        try (InputStream in = stream.toInputStream()) {
+            for (int n; (n = in.read(read, count, read.length - count)) > 0;) {
+                count += n;
+            }
+        }
+        assertEquals(bytes.length, count);
+        assertArrayEquals(bytes, Arrays.copyOf(read, count));
+    }
+}
@@ -0,0 +1,148 @@
+package com.capacitorjs.plugins.camera;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class ImageUtilsTest {
+
+    @Test
+    public void inSampleSizeIsOneWithoutSizeLimits() {
+        assertEquals(1, ImageUtils.calculateInSampleSize(8000, 6000, 0, 0));
+        assertEquals(1, ImageUtils.calculateInSampleSize(0, 6000, 100, 100));
+        assertEquals(1, ImageUtils.calculateInSampleSize(8000, 6000, -1, -1));
+    }
+
+    @Test
+    public void inSampleSizeIsOneForImagesSmallerThanTheLimits() {
+        assertEquals(1, ImageUtils.calculateInSampleSize(640, 480, 1920, 1920));
+        assertEquals(1, ImageUtils.calculateInSampleSize(640, 480, 640, 480));
+    }
+
+    @Test
+    public void inSampleSizeIsTheLargestPowerOfTwoKeepingTheRequestedSize() {
+        // 8000x6000 fits 1000x1000 as 1000x750, 8000 / 8 = 1000 still covers it
+        assertEquals(8, ImageUtils.calculateInSampleSize(8000, 6000, 1000, 1000));
+        // 1001 wide needs more than 8000 / 8 pixels
+        assertEquals(4, ImageUtils.calculateInSampleSize(8000, 6000, 1001, 1001));
+        // rotated, the image is 6000 wide and only has to shrink to 1920 wide
+        assertEquals(2, ImageUtils.calculateInSampleSize(8000, 6000, 1920, 0));
+        assertEquals(2, ImageUtils.calculateInSampleSize(8000, 6000, 0, 2000));
+    }
+
+    @Test
+    public void inSampleSizeConsidersTheRotatedImage() {
+        // rotated, the 4000x1000 image is fit into 1000x4000 without being scaled down
+        assertEquals(1, ImageUtils.calculateInSampleSize(4000, 1000, 1000, 4000));
+    }
+
+    @Test
+    public void inSampleSizeNeverDecodesSmallerThanTheResizedImage() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            int width = 1 + random.nextInt(12000);
+            int height = 1 + random.nextInt(12000);
+            int maxWidth = random.nextInt(4000);
+            int maxHeight = random.nextInt(4000);
+            int sampleSize = ImageUtils.calculateInSampleSize(width, height, maxWidth, maxHeight);
+            String message = width + "x" + height + " into " + maxWidth + "x" + maxHeight + ": " + sampleSize;
+
+            assertEquals(message, 0, sampleSize & (sampleSize - 1));
+            assertTrue(message, fits(width / sampleSize, height / sampleSize, width, height, maxWidth, maxHeight));
+            assertTrue(message, fits(height / sampleSize, width / sampleSize, height, width, maxWidth, maxHeight));
+        }
+    }
+
+    @Test
+    public void imageBudgetIsTheWholeBudgetWithoutAddedData() {
+        assertEquals(1000, ImageUtils.getImageBudget(1000, 900, 900));
+    }
+
+    @Test
+    public void imageBudgetLeavesRoomForTheExifData() {
+        // a 900 byte image fits in 1000 bytes, but not with 300 bytes of exif tags copied into its file
+        long budget = ImageUtils.getImageBudget(1000, 1200, 900);
+
+        assertEquals(700, budget);
+        assertTrue(budget + 300 <= 1000);
+    }
+
+    @Test
+    public void imageBudgetIsNeverEmpty() {
+        // the exif tags alone are over the budget, the smallest encoding is all that can be done
+        assertEquals(1, ImageUtils.getImageBudget(1000, 1600, 500));
+    }
+
+    @Test
+    public void sourceBoundsOfUprightImagesAreUnchanged() {
+        assertArrayEquals(new int[] { 10, 20, 30, 40 }, ImageUtils.toSourceBounds(10, 20, 30, 40, 0, 400, 300));
+    }
+
+    @Test
+    public void sourceBoundsFollowTheRotation() {
+        // the stored image is 400x300, the upright one 300x400 when rotated by 90 or 270
+        assertArrayEquals(new int[] { 20, 270, 40, 290 }, ImageUtils.toSourceBounds(10, 20, 30, 40, 90, 400, 300));
+        assertArrayEquals(new int[] { 370, 260, 390, 280 }, ImageUtils.toSourceBounds(10, 20, 30, 40, 180, 400, 300));
+        assertArrayEquals(new int[] { 360, 10, 380, 30 }, ImageUtils.toSourceBounds(10, 20, 30, 40, 270, 400, 300));
+    }
+
+    @Test
+    public void sourceBoundsCoverTheRotatedPixelsOfTheCrop() {
+        Random random = new Random(42);
+        for (int orientation = 0; orientation < 360; orientation += 90) {
+            for (int i = 0; i < 200; i++) {
+                int width = 1 + random.nextInt(40);
+                int height = 1 + random.nextInt(40);
+                int uprightWidth = orientation % 180 == 0 ? width : height;
+                int uprightHeight = orientation % 180 == 0 ? height : width;
+                int left = random.nextInt(uprightWidth);
+                int top = random.nextInt(uprightHeight);
+                int right = left + 1 + random.nextInt(uprightWidth - left);
+                int bottom = top + 1 + random.nextInt(uprightHeight - top);
+                int[] bounds = ImageUtils.toSourceBounds(left, top, right, bottom, orientation, width, height);
+                String message = orientation + " " + width + "x" + height + " [" + left + ", " + top + ", " + right + ", " + bottom + "]";
+
+                assertEquals(message, (right - left) * (bottom - top), (bounds[2] - bounds[0]) * (bounds[3] - bounds[1]));
+                for (int y = top; y < bottom; y++) {
+                    for (int x = left; x < right; x++) {
+                        int[] source = toSourcePixel(x, y, orientation, width, height);
+                        assertTrue(message, source[0] >= bounds[0] && source[0] < bounds[2]);
+                        assertTrue(message, source[1] >= bounds[1] && source[1] < bounds[3]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the pixel of the stored image shown at the given pixel of the upright image, which
+     * is the stored image rotated clockwise
+     */
+    private static int[] toSourcePixel(int x, int y, int orientation, int width, int height) {
+        switch (orientation) {
+            case 90:
+                return new int[] { y, height - 1 - x };
+            case 180:
+                return new int[] { width - 1 - x, height - 1 - y };
+            case 270:
+                return new int[] { width - 1 - y, x };
+            default:
+                return new int[] { x, y };
+        }
+    }
+
+    /**
+     * Whether the subsampled image is at least as big as the full image resized to the limits
+     */
+    private static boolean fits(int sampledWidth, int sampledHeight, int width, int height, int maxWidth, int maxHeight) {
+        double scale = 1;
+        if (maxWidth > 0) {
+            scale = Math.min(scale, (double) maxWidth / width);
+        }
+        if (maxHeight > 0) {
+            scale = Math.min(scale, (double) maxHeight / height);
+        }
+        return sampledWidth >= Math.floor(width * scale) && sampledHeight >= Math.floor(height * scale);
+    }
+}
@@ -0,0 +1,139 @@
+package com.capacitorjs.plugins.camera;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class SizeBucketPoolTest {
+
+    private static class Item {
+
+        final int size;
+
+        Item(int size) {
+            this.size = size;
+        }
+    }
+
+    private static class ItemPool extends SizeBucketPool<Item> {
+
+        final List<Item> removed = new ArrayList<>();
+
+        ItemPool(long maxBytes) {
+            super(maxBytes);
+        }
+
+        @Override
+        int getByteCount(Item item) {
+            return item.size;
+        }
+
+        @Override
+        void onRemoved(Item item) {
+            removed.add(item);
+        }
+    }
+
+    @Test
+    public void takeReturnsTheSmallestItemBigEnough() {
+        ItemPool pool = new ItemPool(1000);
+        Item small = new Item(100);
+        Item medium = new Item(200);
+        Item large = new Item(400);
+        pool.put(large);
+        pool.put(small);
+        pool.put(medium);
+
+        assertSame(medium, pool.take(150));
+        assertSame(large, pool.take(150));
+        assertNull(pool.take(150));
+        assertSame(small, pool.take(100));
+        assertEquals(0, pool.getCurrentBytes());
+    }
+
+    @Test
+    public void takeSkipsItemsTooBigForTheRequest() {
+        ItemPool pool = new ItemPool(10000);
+        Item item = new Item(SizeBucketPool.MAX_SIZE_MULTIPLE * 100 + 1);
+        pool.put(item);
+
+        assertNull(pool.take(100));
+        assertSame(item, pool.take(101));
+    }
+
+    @Test
+    public void takeReturnsTheLastPutItemOfASize() {
+        ItemPool pool = new ItemPool(1000);
+        Item first = new Item(100);
+        Item second = new Item(100);
+        pool.put(first);
+        pool.put(second);
+
+        assertSame(second, pool.take(100));
+        assertSame(first, pool.take(100));
+    }
+
+    @Test
+    public void putEvictsTheLeastRecentlyPutItems() {
+        ItemPool pool = new ItemPool(500);
+        Item first = new Item(200);
+        Item second = new Item(200);
+        Item third = new Item(200);
+        pool.put(first);
+        pool.put(second);
+        pool.put(third);
+
+        assertEquals(400, pool.getCurrentBytes());
+        assertEquals(1, pool.getEvictionCount());
+        assertEquals(1, pool.removed.size());
+        assertSame(first, pool.removed.get(0));
+        assertFalse(pool.contains(first));
+        assertSame(third, pool.take(200));
+        assertSame(second, pool.take(200));
+        assertNull(pool.take(200));
+    }
+
+    @Test
+    public void putRejectsItemsBiggerThanThePool() {
+        ItemPool pool = new ItemPool(500);
+        Item kept = new Item(300);
+        pool.put(kept);
+
+        assertFalse(pool.put(new Item(501)));
+        assertTrue(pool.contains(kept));
+        assertEquals(300, pool.getCurrentBytes());
+        assertEquals(0, pool.getEvictionCount());
+    }
+
+    @Test
+    public void putIgnoresItemsAlreadyPooled() {
+        ItemPool pool = new ItemPool(500);
+        Item item = new Item(200);
+        pool.put(item);
+
+        assertTrue(pool.put(item));
+        assertEquals(200, pool.getCurrentBytes());
+        assertSame(item, pool.take(200));
+        assertNull(pool.take(200));
+    }
+
+    @Test
+    public void clearRemovesEveryItem() {
+        ItemPool pool = new ItemPool(1000);
+        Item first = new Item(100);
+        Item second = new Item(300);
+        pool.put(first);
+        pool.put(second);
+
+        pool.clear();
+
+        assertEquals(0, pool.getCurrentBytes());
+        assertEquals(2, pool.removed.size());
+        assertTrue(pool.removed.contains(first));
+        assertTrue(pool.removed.contains(second));
+        assertNull(pool.take(100));
+        assertEquals(0, pool.getEvictionCount());
+    }
+}
@@ -0,0 +1,119 @@
+package com.capacitorjs.plugins.camera;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TempImageManagerTest {
+
+    private static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private long now;
+
+    @Before
+    public void setUp() {
+        directory = new File(folder.getRoot(), "camera_images");
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    public void trimKeepsImagesWithinTheBudget() throws IOException {
+        TempImageManager manager = new TempImageManager(directory, 1000, MAX_AGE_MILLIS);
+        writeImage("a.jpeg", 400, TimeUnit.HOURS.toMillis(2));
+        writeImage("b.jpeg", 400, TimeUnit.HOURS.toMillis(1));
+
+        TempImageManager.Usage usage = manager.trim();
+
+        assertEquals(800, usage.getBytes());
+        assertEquals(2, usage.getCount());
+    }
+
+    @Test
+    public void trimDeletesTheOldestImagesOverTheBudget() throws IOException {
+        TempImageManager manager = new TempImageManager(directory, 1000, MAX_AGE_MILLIS);
+        File oldest = writeImage("a.jpeg", 400, TimeUnit.HOURS.toMillis(3));
+        File older = writeImage("b.jpeg", 400, TimeUnit.HOURS.toMillis(2));
+        File newest = writeImage("c.jpeg", 400, TimeUnit.HOURS.toMillis(1));
+
+        TempImageManager.Usage usage = manager.trim();
+
+        assertFalse(oldest.exists());
+        assertTrue(older.exists());
+        assertTrue(newest.exists());
+        assertEquals(800, usage.getBytes());
+        assertEquals(2, usage.getCount());
+    }
+
+    @Test
+    public void trimDeletesImagesOlderThanTheMaxAge() throws IOException {
+        TempImageManager manager = new TempImageManager(directory, 1000, MAX_AGE_MILLIS);
+        File expired = writeImage("a.jpeg", 10, MAX_AGE_MILLIS + TimeUnit.MINUTES.toMillis(1));
+        File recent = writeImage("b.jpeg", 10, TimeUnit.HOURS.toMillis(1));
+
+        TempImageManager.Usage usage = manager.trim();
+
+        assertFalse(expired.exists());
+        assertTrue(recent.exists());
+        assertEquals(10, usage.getBytes());
+        assertEquals(1, usage.getCount());
+    }
+
+    @Test
+    public void trimNeverDeletesImagesWrittenInTheLastMinute() throws IOException {
+        TempImageManager manager = new TempImageManager(directory, 100, MAX_AGE_MILLIS);
+        File old = writeImage("a.jpeg", 400, TimeUnit.HOURS.toMillis(1));
+        File returned = writeImage("b.jpeg", 400, TimeUnit.SECONDS.toMillis(10));
+
+        TempImageManager.Usage usage = manager.trim();
+
+        assertFalse(old.exists());
+        assertTrue(returned.exists());
+        assertEquals(400, usage.getBytes());
+        assertEquals(1, usage.getCount());
+    }
+
+    @Test
+    public void trimIgnoresAMissingDirectory() {
+        TempImageManager manager = new TempImageManager(directory, 100, MAX_AGE_MILLIS);
+
+        TempImageManager.Usage usage = manager.trim();
+
+        assertEquals(0, usage.getBytes());
+        assertEquals(0, usage.getCount());
+    }
+
+    @Test
+    public void purgeDeletesEveryImage() throws IOException {
+        TempImageManager manager = new TempImageManager(directory, 1000, MAX_AGE_MILLIS);
+        writeImage("a.jpeg", 400, TimeUnit.HOURS.toMillis(1));
+        writeImage("b.jpeg", 400, 0);
+
+        assertEquals(800, manager.getUsage().getBytes());
+        TempImageManager.Usage usage = manager.purge();
+
+        assertEquals(0, usage.getBytes());
+        assertEquals(0, usage.getCount());
+        assertEquals(0, manager.getUsage().getCount());
+    }
+
+    private File writeImage(String name, int length, long age) throws IOException {
+        directory.mkdirs();
+        File file = new File(directory, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[length]);
+        }
+        assertTrue(file.setLastModified(now - age));
+        return file;
+    }
+}
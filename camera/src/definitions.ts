@@ -1,4 +1,4 @@
-import type { PermissionState } from '@capacitor/core';
+import type { PermissionState, PluginListenerHandle } from '@capacitor/core';
 
 export type CameraPermissionState = PermissionState | 'limited';
 
@@ -57,6 +57,43 @@ export interface CameraPlugin {
    * @since 1.0.0
    */
   requestPermissions(permissions?: CameraPluginPermissions): Promise<PermissionStatus>;
+
+  /**
+   * Get the number of processed photos kept in the plugin's temp image cache and the
+   * bytes they use. Old photos are evicted automatically once the cache holds more
+   * than `maxBytes` or they are older than a day.
+   *
+   * Only available on Android.
+   *
+   * @since 8.1.0
+   */
+  getTempImageUsage(): Promise<TempImageUsage>;
+
+  /**
+   * Delete every processed photo kept in the plugin's temp image cache.
+   * Paths returned by previous calls can't be read anymore afterwards.
+   *
+   * Only available on Android.
+   *
+   * @since 8.1.0
+   */
+  purgeTempImages(): Promise<TempImageUsage>;
+
+  /**
+   * Listen for photos processed by `pickImages` when `streamResults` is enabled.
+   *
+   * Only available on Android.
+   *
+   * @since 8.1.0
+   */
+  addListener(eventName: 'pickedImage', listenerFunc: (photo: PickedImage) => void): Promise<PluginListenerHandle>;
+
+  /**
+   * Remove all listeners for this plugin.
+   *
+   * @since 8.1.0
+   */
+  removeAllListeners(): Promise<void>;
 }
 
 export interface ImageOptions {
@@ -108,6 +145,77 @@ export interface ImageOptions {
    * @since 1.0.0
    */
   correctOrientation?: boolean;
+  /**
+   * Android only: Which exif tags to return with the photo.
+   * `'essential'` returns date, camera, exposure and location tags, `'none'` returns no tags
+   * and `'all'` returns every tag except large ones such as XMP data and thumbnails,
+   * which are only returned when listed explicitly.
+   * @default 'all'
+   *
+   * @since 8.1.0
+   */
+  exifTags?: 'none' | 'essential' | 'all' | string[];
+  /**
+   * Android only: Return the original JPEG as is, without decoding and re-encoding it,
+   * when no resize, rotation or editing is needed. Images taken with `quality: 100`
+   * are always returned as is when possible.
+   * @default false
+   *
+   * @since 8.1.0
+   */
+  passthrough?: boolean;
+  /**
+   * Android only: The format to encode the photo with. `'webp'` is lossy and
+   * `'webpLossless'` ignores `quality`. `'webpLossless'` requires Android 10 or later,
+   * the call is rejected on older versions. WebP files are usually 25-35% smaller than
+   * JPEG at the same visual quality.
+   * @default 'jpeg'
+   *
+   * @since 8.1.0
+   */
+  outputFormat?: 'jpeg' | 'webp' | 'webpLossless';
+  /**
+   * Android only: Also return a thumbnail of the photo that fits in a square of this
+   * many pixels, encoded with `outputFormat`. Thumbnails are cached, so picking the
+   * same photo again returns the cached thumbnail.
+   *
+   * @since 8.1.0
+   */
+  thumbnail?: number;
+  /**
+   * Android only: The max size of the encoded photo in bytes. If the photo doesn't fit
+   * with `quality`, the highest quality that fits is used, and if not even the lowest
+   * quality fits, the photo is scaled down. The picked quality is returned as `quality`.
+   *
+   * @since 8.1.0
+   */
+  maxBytes?: number;
+  /**
+   * Android only: Return the timings of the processing stages and the memory used
+   * as `metrics`.
+   * @default false
+   *
+   * @since 8.1.0
+   */
+  includeMetrics?: boolean;
+  /**
+   * Android only: How the photo is scaled down when resizing. `'nearest'` is fastest but
+   * aliases on large reductions, `'bilinear'` filters a single pass and `'progressive'`
+   * halves the photo repeatedly before a final filtered pass, which looks best at a
+   * similar cost.
+   * @default 'nearest'
+   *
+   * @since 8.1.0
+   */
+  resampling?: 'nearest' | 'bilinear' | 'progressive';
+  /**
+   * Android only: Only decode and return this rectangle of the photo, in pixels of the
+   * original, upright photo. It's applied before `width` and `height`, which then limit the
+   * size of the cropped photo. Parts outside of the photo are left out.
+   *
+   * @since 8.1.0
+   */
+  crop?: CropRect;
   /**
    * The source to get the photo from. By default this prompts the user to select
    * either the photo album or take a photo.
@@ -234,6 +342,30 @@ export interface Photo {
    * @since 1.1.0
    */
   saved: boolean;
+  /**
+   * Android only: Full, platform-specific file URL of the thumbnail, if requested with the `thumbnail` option.
+   *
+   * @since 8.1.0
+   */
+  thumbnailPath?: string;
+  /**
+   * Android only: webPath of the thumbnail, if requested with the `thumbnail` option.
+   *
+   * @since 8.1.0
+   */
+  thumbnailWebPath?: string;
+  /**
+   * Android only: The quality the photo was encoded with, if `maxBytes` was set.
+   *
+   * @since 8.1.0
+   */
+  quality?: number;
+  /**
+   * Android only: The timings and memory use of processing the photo, if `includeMetrics` was set.
+   *
+   * @since 8.1.0
+   */
+  metrics?: ImageMetrics;
 }
 
 export interface GalleryPhotos {
@@ -243,6 +375,167 @@ export interface GalleryPhotos {
    * @since 1.2.0
    */
   photos: GalleryPhoto[];
+  /**
+   * Android only: The number of picked photos.
+   * When `streamResults` is enabled, `photos` is empty and the photos
+   * are delivered through the `pickedImage` event instead.
+   *
+   * @since 8.1.0
+   */
+  count?: number;
+}
+
+export interface TempImageUsage {
+  /**
+   * The bytes used by the photos in the temp image cache.
+   *
+   * @since 8.1.0
+   */
+  bytes: number;
+  /**
+   * The number of photos in the temp image cache.
+   *
+   * @since 8.1.0
+   */
+  count: number;
+  /**
+   * The byte budget of the temp image cache.
+   *
+   * @since 8.1.0
+   */
+  maxBytes: number;
+}
+
+export interface CropRect {
+  /**
+   * Left edge of the rectangle.
+   *
+   * @since 8.1.0
+   */
+  x: number;
+  /**
+   * Top edge of the rectangle.
+   *
+   * @since 8.1.0
+   */
+  y: number;
+  /**
+   * Width of the rectangle.
+   *
+   * @since 8.1.0
+   */
+  width: number;
+  /**
+   * Height of the rectangle.
+   *
+   * @since 8.1.0
+   */
+  height: number;
+}
+
+export interface ImageMetrics {
+  /**
+   * Time spent in each processing stage in nanoseconds, keyed by stage:
+   * `decode`, `exif`, `transform`, `compress`, `write`, `base64`, `thumbnail` and `gallery`.
+   * Only the stages the photo went through are present.
+   *
+   * @since 8.1.0
+   */
+  stages: { [stage: string]: number };
+  /**
+   * Total processing time in nanoseconds.
+   *
+   * @since 8.1.0
+   */
+  totalNanos: number;
+  /**
+   * The most bytes used by bitmaps at the same time.
+   *
+   * @since 8.1.0
+   */
+  peakBitmapBytes: number;
+  /**
+   * Width of the original photo.
+   *
+   * @since 8.1.0
+   */
+  inputWidth: number;
+  /**
+   * Height of the original photo.
+   *
+   * @since 8.1.0
+   */
+  inputHeight: number;
+  /**
+   * Width of the returned photo.
+   *
+   * @since 8.1.0
+   */
+  outputWidth: number;
+  /**
+   * Height of the returned photo.
+   *
+   * @since 8.1.0
+   */
+  outputHeight: number;
+}
+
+export interface PickedImage {
+  /**
+   * Position of the photo in the user's selection.
+   *
+   * @since 8.1.0
+   */
+  index: number;
+  /**
+   * Full, platform-specific file URL that can be read later using the Filesystem API.
+   *
+   * @since 8.1.0
+   */
+  path?: string;
+  /**
+   * webPath returns a path that can be used to set the src attribute of an image for efficient
+   * loading and rendering.
+   *
+   * @since 8.1.0
+   */
+  webPath: string;
+  /**
+   * Exif data, if any, retrieved from the image
+   *
+   * @since 8.1.0
+   */
+  exif?: any;
+  /**
+   * The format of the image, ex: jpeg.
+   *
+   * @since 8.1.0
+   */
+  format: string;
+  /**
+   * Android only: Full, platform-specific file URL of the thumbnail, if requested with the `thumbnail` option.
+   *
+   * @since 8.1.0
+   */
+  thumbnailPath?: string;
+  /**
+   * Android only: webPath of the thumbnail, if requested with the `thumbnail` option.
+   *
+   * @since 8.1.0
+   */
+  thumbnailWebPath?: string;
+  /**
+   * Android only: The quality the photo was encoded with, if `maxBytes` was set.
+   *
+   * @since 8.1.0
+   */
+  quality?: number;
+  /**
+   * Android only: The timings and memory use of processing the photo, if `includeMetrics` was set.
+   *
+   * @since 8.1.0
+   */
+  metrics?: ImageMetrics;
 }
 
 export interface GalleryPhoto {
@@ -274,6 +567,30 @@ export interface GalleryPhoto {
    * @since 1.2.0
    */
   format: string;
+  /**
+   * Android only: Full, platform-specific file URL of the thumbnail, if requested with the `thumbnail` option.
+   *
+   * @since 8.1.0
+   */
+  thumbnailPath?: string;
+  /**
+   * Android only: webPath of the thumbnail, if requested with the `thumbnail` option.
+   *
+   * @since 8.1.0
+   */
+  thumbnailWebPath?: string;
+  /**
+   * Android only: The quality the photo was encoded with, if `maxBytes` was set.
+   *
+   * @since 8.1.0
+   */
+  quality?: number;
+  /**
+   * Android only: The timings and memory use of processing the photo, if `includeMetrics` was set.
+   *
+   * @since 8.1.0
+   */
+  metrics?: ImageMetrics;
 }
 export interface GalleryImageOptions {
   /**
@@ -303,6 +620,77 @@ export interface GalleryImageOptions {
    * @since 1.2.0
    */
   correctOrientation?: boolean;
+  /**
+   * Android only: Which exif tags to return with the photo.
+   * `'essential'` returns date, camera, exposure and location tags, `'none'` returns no tags
+   * and `'all'` returns every tag except large ones such as XMP data and thumbnails,
+   * which are only returned when listed explicitly.
+   * @default 'all'
+   *
+   * @since 8.1.0
+   */
+  exifTags?: 'none' | 'essential' | 'all' | string[];
+  /**
+   * Android only: Return the original JPEG as is, without decoding and re-encoding it,
+   * when no resize, rotation or editing is needed. Images taken with `quality: 100`
+   * are always returned as is when possible.
+   * @default false
+   *
+   * @since 8.1.0
+   */
+  passthrough?: boolean;
+  /**
+   * Android only: The format to encode the photo with. `'webp'` is lossy and
+   * `'webpLossless'` ignores `quality`. `'webpLossless'` requires Android 10 or later,
+   * the call is rejected on older versions. WebP files are usually 25-35% smaller than
+   * JPEG at the same visual quality.
+   * @default 'jpeg'
+   *
+   * @since 8.1.0
+   */
+  outputFormat?: 'jpeg' | 'webp' | 'webpLossless';
+  /**
+   * Android only: Also return a thumbnail of the photo that fits in a square of this
+   * many pixels, encoded with `outputFormat`. Thumbnails are cached, so picking the
+   * same photo again returns the cached thumbnail.
+   *
+   * @since 8.1.0
+   */
+  thumbnail?: number;
+  /**
+   * Android only: The max size of the encoded photo in bytes. If the photo doesn't fit
+   * with `quality`, the highest quality that fits is used, and if not even the lowest
+   * quality fits, the photo is scaled down. The picked quality is returned as `quality`.
+   *
+   * @since 8.1.0
+   */
+  maxBytes?: number;
+  /**
+   * Android only: Return the timings of the processing stages and the memory used
+   * as `metrics`.
+   * @default false
+   *
+   * @since 8.1.0
+   */
+  includeMetrics?: boolean;
+  /**
+   * Android only: How the photo is scaled down when resizing. `'nearest'` is fastest but
+   * aliases on large reductions, `'bilinear'` filters a single pass and `'progressive'`
+   * halves the photo repeatedly before a final filtered pass, which looks best at a
+   * similar cost.
+   * @default 'nearest'
+   *
+   * @since 8.1.0
+   */
+  resampling?: 'nearest' | 'bilinear' | 'progressive';
+  /**
+   * Android only: Only decode and return this rectangle of the photo, in pixels of the
+   * original, upright photo. It's applied before `width` and `height`, which then limit the
+   * size of the cropped photo. Parts outside of the photo are left out.
+   *
+   * @since 8.1.0
+   */
+  crop?: CropRect;
 
   /**
    * iOS only: The presentation style of the Camera.
@@ -321,6 +709,16 @@ export interface GalleryImageOptions {
    * @since 1.2.0
    */
   limit?: number;
+
+  /**
+   * Android only: Whether to emit every photo through the `pickedImage` event as soon
+   * as it has been processed, instead of returning all of them at once.
+   * When enabled, the returned `photos` array is empty.
+   * @default false
+   *
+   * @since 8.1.0
+   */
+  streamResults?: boolean;
 }
 
 export enum CameraSource {
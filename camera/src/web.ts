@@ -8,6 +8,7 @@ import type {
   ImageOptions,
   PermissionStatus,
   Photo,
+  TempImageUsage,
 } from './definitions';
 
 export class CameraWeb extends WebPlugin implements CameraPlugin {
@@ -267,6 +268,14 @@ export class CameraWeb extends WebPlugin implements CameraPlugin {
   async getLimitedLibraryPhotos(): Promise<GalleryPhotos> {
     throw this.unavailable('Not implemented on web.');
   }
+
+  async getTempImageUsage(): Promise<TempImageUsage> {
+    throw this.unavailable('Not implemented on web.');
+  }
+
+  async purgeTempImages(): Promise<TempImageUsage> {
+    throw this.unavailable('Not implemented on web.');
+  }
 }
 
 const Camera = new CameraWeb();
@@ -2,6 +2,8 @@ package com.capacitorjs.plugins.localnotifications;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
 
 /**
  * Class that holds logic for on triggers
@@ -23,6 +25,9 @@ public class DateMatch {
     // One of the Calendar constants values
     private Integer unit = -1;
 
+    // Compiled matcher, built on first use and dropped when a field changes
+    private DateMatcher matcher;
+
     public DateMatch() {}
 
     public Integer getYear() {
@@ -31,6 +36,7 @@ public class DateMatch {
 
     public void setYear(Integer year) {
         this.year = year;
+        this.matcher = null;
     }
 
     public Integer getMonth() {
@@ -39,6 +45,7 @@ public class DateMatch {
 
     public void setMonth(Integer month) {
         this.month = month;
+        this.matcher = null;
     }
 
     public Integer getDay() {
@@ -47,6 +54,7 @@ public class DateMatch {
 
     public void setDay(Integer day) {
         this.day = day;
+        this.matcher = null;
     }
 
     public Integer getWeekday() {
@@ -55,6 +63,7 @@ public class DateMatch {
 
     public void setWeekday(Integer weekday) {
         this.weekday = weekday;
+        this.matcher = null;
     }
 
     public Integer getHour() {
@@ -63,6 +72,7 @@ public class DateMatch {
 
     public void setHour(Integer hour) {
         this.hour = hour;
+        this.matcher = null;
     }
 
     public Integer getMinute() {
@@ -71,6 +81,7 @@ public class DateMatch {
 
     public void setMinute(Integer minute) {
         this.minute = minute;
+        this.matcher = null;
     }
 
     public Integer getSecond() {
@@ -79,90 +90,69 @@ public class DateMatch {
 
     public void setSecond(Integer second) {
         this.second = second;
+        this.matcher = null;
     }
 
     /**
-     * Gets a calendar instance pointing to the specified date.
+     * Calculates next trigger date for
      *
-     * @param date The date to point.
+     * @param date base date used to calculate trigger
+     * @return next trigger timestamp, or -1 if the date never matches again
      */
-    private Calendar buildCalendar(Date date) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
-        cal.set(Calendar.MILLISECOND, 0);
-        return cal;
+    public long nextTrigger(Date date) {
+        return nextTrigger(date, TimeZone.getDefault());
     }
 
     /**
-     * Calculates next trigger date for
+     * Calculates next trigger date in the given time zone
      *
      * @param date base date used to calculate trigger
-     * @return next trigger timestamp
+     * @return next trigger timestamp, or -1 if the date never matches again
      */
-    public long nextTrigger(Date date) {
-        Calendar current = buildCalendar(date);
-        Calendar next = buildNextTriggerTime(date);
-        return postponeTriggerIfNeeded(current, next);
+    public long nextTrigger(Date date, TimeZone timeZone) {
+        updateUnit();
+        return getMatcher().next(date.getTime(), timeZone);
     }
 
     /**
-     * Postpone trigger if first schedule matches the past
+     * Calculates the next trigger dates, in the default time zone
+     *
+     * @param date base date used to calculate triggers
+     * @param count maximum number of triggers to calculate
+     * @return next trigger timestamps, fewer than count if the date stops matching
      */
-    private long postponeTriggerIfNeeded(Calendar current, Calendar next) {
-        if (next.getTimeInMillis() <= current.getTimeInMillis() && unit != -1) {
-            Integer incrementUnit = -1;
-            if (unit == Calendar.YEAR || unit == Calendar.MONTH) {
-                incrementUnit = Calendar.YEAR;
-            } else if (unit == Calendar.DAY_OF_MONTH) {
-                incrementUnit = Calendar.MONTH;
-            } else if (unit == Calendar.DAY_OF_WEEK) {
-                incrementUnit = Calendar.WEEK_OF_MONTH;
-            } else if (unit == Calendar.HOUR_OF_DAY) {
-                incrementUnit = Calendar.DAY_OF_MONTH;
-            } else if (unit == Calendar.MINUTE) {
-                incrementUnit = Calendar.HOUR_OF_DAY;
-            } else if (unit == Calendar.SECOND) {
-                incrementUnit = Calendar.MINUTE;
-            }
-
-            if (incrementUnit != -1) {
-                next.set(incrementUnit, next.get(incrementUnit) + 1);
-            }
+    public List<Long> nextTriggers(Date date, int count) {
+        updateUnit();
+        return getMatcher().next(date.getTime(), count, TimeZone.getDefault());
+    }
+
+    private DateMatcher getMatcher() {
+        if (matcher == null) {
+            matcher = new DateMatcher(this);
         }
-        return next.getTimeInMillis();
+        return matcher;
     }
 
-    private Calendar buildNextTriggerTime(Date date) {
-        Calendar next = buildCalendar(date);
+    /**
+     * Save the largest unit set, still stored in the match string
+     */
+    private void updateUnit() {
+        if (unit != -1) return;
         if (year != null) {
-            next.set(Calendar.YEAR, year);
-            if (unit == -1) unit = Calendar.YEAR;
-        }
-        if (month != null) {
-            next.set(Calendar.MONTH, month);
-            if (unit == -1) unit = Calendar.MONTH;
-        }
-        if (day != null) {
-            next.set(Calendar.DAY_OF_MONTH, day);
-            if (unit == -1) unit = Calendar.DAY_OF_MONTH;
-        }
-        if (weekday != null) {
-            next.set(Calendar.DAY_OF_WEEK, weekday);
-            if (unit == -1) unit = Calendar.DAY_OF_WEEK;
-        }
-        if (hour != null) {
-            next.set(Calendar.HOUR_OF_DAY, hour);
-            if (unit == -1) unit = Calendar.HOUR_OF_DAY;
-        }
-        if (minute != null) {
-            next.set(Calendar.MINUTE, minute);
-            if (unit == -1) unit = Calendar.MINUTE;
-        }
-        if (second != null) {
-            next.set(Calendar.SECOND, second);
-            if (unit == -1) unit = Calendar.SECOND;
+            unit = Calendar.YEAR;
+        } else if (month != null) {
+            unit = Calendar.MONTH;
+        } else if (day != null) {
+            unit = Calendar.DAY_OF_MONTH;
+        } else if (weekday != null) {
+            unit = Calendar.DAY_OF_WEEK;
+        } else if (hour != null) {
+            unit = Calendar.HOUR_OF_DAY;
+        } else if (minute != null) {
+            unit = Calendar.MINUTE;
+        } else if (second != null) {
+            unit = Calendar.SECOND;
         }
-        return next;
     }
 
     @Override
@@ -0,0 +1,219 @@
+package com.capacitorjs.plugins.localnotifications;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Compiled form of a {@link DateMatch}, with the allowed values of every field in a bitset, that
+ * finds the next matching time by skipping straight to the next allowed value of the first field
+ * that doesn't match, instead of trying times one unit at a time.
+ *
+ * Fields that are not set match any value, except the ones smaller than the smallest field that
+ * is set, which match their first value: {hour: 8} matches 08:00:00 every day.
+ *
+ * Times repeated when the clock is turned back match on both occurrences, so minutes and seconds
+ * are advanced in real time, and hours and dates are set to the first occurrence of their time.
+ */
+public class DateMatcher {
+
+    // Give up looking for a match after this many years, e.g. for February 30
+    private static final int MAX_SEARCH_YEARS = 400;
+
+    // Clocks are never turned back by this much at once
+    private static final long MAX_CLOCK_SHIFT_MILLIS = 3 * 60 * 60 * 1000L;
+
+    private final Integer year;
+    private final long monthBits;
+    private final long dayBits;
+    private final long weekdayBits;
+    private final long hourBits;
+    private final long minuteBits;
+    private final long secondBits;
+
+    public DateMatcher(DateMatch match) {
+        this.year = match.getYear();
+        boolean seconds = match.getSecond() != null;
+        boolean minutes = seconds || match.getMinute() != null;
+        boolean hours = minutes || match.getHour() != null;
+        this.secondBits = compile(match.getSecond(), 0, 59, seconds);
+        this.minuteBits = compile(match.getMinute(), 0, 59, minutes);
+        this.hourBits = compile(match.getHour(), 0, 23, hours);
+        boolean days = hours || match.getDay() != null || match.getWeekday() != null;
+        this.weekdayBits = compile(match.getWeekday(), Calendar.SUNDAY, Calendar.SATURDAY, true);
+        this.dayBits = compile(match.getDay(), 1, 31, days);
+        this.monthBits = compile(match.getMonth(), Calendar.JANUARY, Calendar.DECEMBER, days || match.getMonth() != null);
+    }
+
+    /**
+     * Get the bits of the allowed values of a field
+     *
+     * @param value - the value to match, or null to match any value
+     * @param wildcard - whether a null value matches any value, or only the first one
+     */
+    private static long compile(Integer value, int min, int max, boolean wildcard) {
+        if (value != null) {
+            return value >= min && value <= max ? 1L << value : 0;
+        }
+        if (!wildcard) {
+            return 1L << min;
+        }
+        return (-1L >>> (63 - max)) & (-1L << min);
+    }
+
+    /**
+     * Find the first matching time strictly after the given time, in the given time zone
+     *
+     * @return the matching timestamp in milliseconds, or -1 if nothing matches
+     */
+    public long next(long from, TimeZone timeZone) {
+        Calendar cal = new GregorianCalendar(timeZone);
+        // setting the milliseconds would resolve a repeated time to its second occurrence
+        cal.setTimeInMillis(Math.floorDiv(from, 1000L) * 1000L + 1000L);
+        int lastYear = cal.get(Calendar.YEAR) + MAX_SEARCH_YEARS;
+
+        while (cal.get(Calendar.YEAR) <= lastYear) {
+            long current = cal.getTimeInMillis();
+            int currentYear = cal.get(Calendar.YEAR);
+            if (year != null && currentYear != year) {
+                if (currentYear > year) {
+                    return -1;
+                }
+                startOfYear(cal, year);
+                firstOccurrence(cal, current);
+                continue;
+            }
+
+            int month = nextBit(monthBits, cal.get(Calendar.MONTH));
+            if (month < 0) {
+                startOfYear(cal, currentYear + 1);
+                firstOccurrence(cal, current);
+                continue;
+            }
+            if (month != cal.get(Calendar.MONTH)) {
+                cal.set(currentYear, month, 1, 0, 0, 0);
+                firstOccurrence(cal, current);
+                continue;
+            }
+
+            int day = nextBit(dayBits, cal.get(Calendar.DAY_OF_MONTH));
+            if (day < 0 || day > cal.getActualMaximum(Calendar.DAY_OF_MONTH)) {
+                startOfMonth(cal, 1);
+                firstOccurrence(cal, current);
+                continue;
+            }
+            if (day != cal.get(Calendar.DAY_OF_MONTH)) {
+                cal.set(Calendar.DAY_OF_MONTH, day);
+                startOfDay(cal);
+                firstOccurrence(cal, current);
+                continue;
+            }
+            if (!hasBit(weekdayBits, cal.get(Calendar.DAY_OF_WEEK))) {
+                nextDay(cal);
+                firstOccurrence(cal, current);
+                continue;
+            }
+
+            int hour = nextBit(hourBits, cal.get(Calendar.HOUR_OF_DAY));
+            if (hour < 0) {
+                nextDay(cal);
+                firstOccurrence(cal, current);
+                continue;
+            }
+            if (hour != cal.get(Calendar.HOUR_OF_DAY)) {
+                // an hour skipped by daylight saving time moves on to the next one, checked again
+                cal.set(Calendar.HOUR_OF_DAY, hour);
+                cal.set(Calendar.MINUTE, 0);
+                cal.set(Calendar.SECOND, 0);
+                firstOccurrence(cal, current);
+                continue;
+            }
+
+            int minute = nextBit(minuteBits, cal.get(Calendar.MINUTE));
+            int second = cal.get(Calendar.SECOND);
+            if (minute < 0) {
+                // the end of a repeated hour moves on to its second occurrence
+                cal.add(Calendar.SECOND, (60 - cal.get(Calendar.MINUTE)) * 60 - second);
+                continue;
+            }
+            if (minute != cal.get(Calendar.MINUTE)) {
+                cal.add(Calendar.SECOND, (minute - cal.get(Calendar.MINUTE)) * 60 - second);
+                continue;
+            }
+
+            int nextSecond = nextBit(secondBits, second);
+            if (nextSecond < 0) {
+                cal.add(Calendar.SECOND, 60 - second);
+                continue;
+            }
+            cal.add(Calendar.SECOND, nextSecond - second);
+            return cal.getTimeInMillis();
+        }
+        return -1;
+    }
+
+    /**
+     * Find the next matching times strictly after the given time, in the given time zone
+     *
+     * @return up to count matching timestamps in milliseconds, fewer if nothing matches after them
+     */
+    public List<Long> next(long from, int count, TimeZone timeZone) {
+        List<Long> triggers = new ArrayList<>(count);
+        long trigger = from;
+        while (triggers.size() < count) {
+            trigger = next(trigger, timeZone);
+            if (trigger < 0) {
+                break;
+            }
+            triggers.add(trigger);
+        }
+        return triggers;
+    }
+
+    private static int nextBit(long bits, int from) {
+        long remaining = bits & (-1L << from);
+        return remaining == 0 ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+
+    private static boolean hasBit(long bits, int value) {
+        return (bits & (1L << value)) != 0;
+    }
+
+    private static void startOfYear(Calendar cal, int year) {
+        cal.set(year, Calendar.JANUARY, 1, 0, 0, 0);
+    }
+
+    private static void startOfMonth(Calendar cal, int months) {
+        cal.set(Calendar.DAY_OF_MONTH, 1);
+        cal.add(Calendar.MONTH, months);
+        startOfDay(cal);
+    }
+
+    private static void nextDay(Calendar cal) {
+        cal.add(Calendar.DAY_OF_MONTH, 1);
+        startOfDay(cal);
+    }
+
+    private static void startOfDay(Calendar cal) {
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+    }
+
+    /**
+     * Move a calendar whose wall clock time was just set to the first occurrence of that time
+     * after the given time, as Calendar resolves a time repeated when the clock is turned back to
+     * its second occurrence
+     */
+    private static void firstOccurrence(Calendar cal, long after) {
+        TimeZone timeZone = cal.getTimeZone();
+        long time = cal.getTimeInMillis();
+        long wallTime = time + timeZone.getOffset(time);
+        long earlier = wallTime - timeZone.getOffset(time - MAX_CLOCK_SHIFT_MILLIS);
+        if (earlier < time && earlier > after && earlier + timeZone.getOffset(earlier) == wallTime) {
+            cal.setTimeInMillis(earlier);
+        }
+    }
+}
@@ -14,6 +14,7 @@ import android.media.AudioAttributes;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.service.notification.StatusBarNotification;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -31,9 +32,13 @@ import com.getcapacitor.plugin.util.AssetUtil;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -56,16 +61,24 @@ public class LocalNotificationManager {
     public static final String DEFAULT_NOTIFICATION_CHANNEL_ID = "default";
     private static final String DEFAULT_PRESS_ACTION = "tap";
 
+    private static final int DEFAULT_COALESCE_ALARMS_WINDOW = 60;
+
     private Context context;
     private Activity activity;
     private NotificationStorage storage;
     private PluginConfig config;
+    private NotificationManagerCompat notificationManager;
+    private AlarmManager alarmManager;
+    private boolean coalesceAlarms;
+    private long coalesceAlarmsWindowMillis;
 
     public LocalNotificationManager(NotificationStorage notificationStorage, Activity activity, Context context, CapConfig config) {
         storage = notificationStorage;
         this.activity = activity;
         this.context = context;
         this.config = config.getPluginConfiguration("LocalNotifications");
+        this.coalesceAlarms = this.config.getBoolean("coalesceAlarms", false);
+        this.coalesceAlarmsWindowMillis = this.config.getInt("coalesceAlarmsWindow", DEFAULT_COALESCE_ALARMS_WINDOW) * 1000L;
     }
 
     /**
@@ -166,10 +179,16 @@ public class LocalNotificationManager {
         }
     }
 
+    /**
+     * Schedule or show a batch of notifications. Existing notifications with the same ids are
+     * replaced: the visible ones are dismissed, skipping ids unknown to the system, and their
+     * alarms are canceled. The notifications are all built first, then handed over to the
+     * system in one pass, in order.
+     */
     @Nullable
     public JSONArray schedule(PluginCall call, List<LocalNotification> localNotifications) {
         JSONArray ids = new JSONArray();
-        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(context);
+        NotificationManagerCompat notificationManager = getNotificationManager();
 
         boolean notificationsEnabled = notificationManager.areNotificationsEnabled();
         if (!notificationsEnabled) {
@@ -179,24 +198,156 @@ public class LocalNotificationManager {
             return null;
         }
         for (LocalNotification localNotification : localNotifications) {
-            Integer id = localNotification.getId();
             if (localNotification.getId() == null) {
                 if (call != null) {
                     call.reject("LocalNotification missing identifier");
                 }
                 return null;
             }
-            if (!localNotification.isUpdateSilently()) {
+        }
+
+        Set<Integer> visibleIds = getVisibleNotificationIds();
+        for (LocalNotification localNotification : localNotifications) {
+            Integer id = localNotification.getId();
+            if (!localNotification.isUpdateSilently() && visibleIds.contains(id)) {
                 dismissVisibleNotification(id);
             }
             // TODO [ios] also implement updateSilently that way in iOS or make sure it is - needs to cancel scheduled notification even if updateSilently is set
+            // repeating notifications are deleted from the storage after they first fire, but keep their alarm
             cancelTimerForNotification(id);
-            buildNotification(notificationManager, localNotification, call);
-            ids.put(id);
+        }
+
+        List<Notification> notifications = buildNotifications(localNotifications, call);
+        List<LocalNotification> queuedNotifications = new ArrayList<>();
+        for (int i = 0; i < localNotifications.size(); i++) {
+            LocalNotification localNotification = localNotifications.get(i);
+            if (notifications.get(i) != null) {
+                if (isCoalesced(localNotification)) {
+                    queuedNotifications.add(localNotification);
+                } else {
+                    postNotification(notificationManager, notifications.get(i), localNotification);
+                }
+            }
+            ids.put(localNotification.getId());
+        }
+        if (coalesceAlarms) {
+            queueNotifications(localNotifications, queuedNotifications);
         }
         return ids;
     }
 
+    /**
+     * Whether the notification is triggered by the alarm queue instead of an alarm of its own.
+     * Only one-shot and date match schedules are coalesced, repeating intervals keep their
+     * repeating alarm.
+     */
+    private boolean isCoalesced(LocalNotification localNotification) {
+        if (!coalesceAlarms || !localNotification.isScheduled()) {
+            return false;
+        }
+        LocalNotificationSchedule schedule = localNotification.getSchedule();
+        if (schedule.getAt() != null) {
+            return !schedule.isRepeating();
+        }
+        return schedule.getEvery() == null && schedule.getOn() != null;
+    }
+
+    /**
+     * Update the alarm queue for a scheduled batch in a single pass: add the coalesced
+     * notifications and remove the other ones, which may have been queued before.
+     */
+    private void queueNotifications(List<LocalNotification> localNotifications, List<LocalNotification> queuedNotifications) {
+        long now = System.currentTimeMillis();
+        NotificationAlarmQueue.update(context, (queue) -> {
+            for (LocalNotification localNotification : localNotifications) {
+                queue.remove(localNotification.getId());
+            }
+            for (LocalNotification localNotification : queuedNotifications) {
+                LocalNotificationSchedule schedule = localNotification.getSchedule();
+                Date at = schedule.getAt();
+                if (at == null) {
+                    long trigger = schedule.getOn().nextTrigger(new Date(now));
+                    if (trigger < 0) {
+                        Logger.error(Logger.tags("LN"), "Notification " + localNotification.getId() + " never matches its schedule", null);
+                    } else {
+                        queue.add(localNotification.getId(), trigger);
+                    }
+                } else if (at.getTime() < now) {
+                    Logger.error(Logger.tags("LN"), "Scheduled time must be *after* current time", null);
+                } else {
+                    queue.add(localNotification.getId(), at.getTime());
+                }
+            }
+        });
+    }
+
+    /**
+     * Show every queued notification due within the coalescing window, queue the next
+     * occurrence of the ones scheduled on a date match and re-arm the queue alarm.
+     * Called by {@link TimedNotificationPublisher} when the queue alarm goes off.
+     */
+    public void fireQueuedNotifications() {
+        long now = System.currentTimeMillis();
+        NotificationAlarmQueue.update(context, (queue) -> {
+            for (Map.Entry<Integer, Long> due : queue.pollDue(now + coalesceAlarmsWindowMillis).entrySet()) {
+                int id = due.getKey();
+                LocalNotification localNotification = storage.getSavedNotification(Integer.toString(id));
+                if (localNotification == null) {
+                    continue;
+                }
+
+                Notification notification;
+                try {
+                    notification = buildNotificationOrThrow(localNotification);
+                } catch (IllegalArgumentException ex) {
+                    Logger.error(Logger.tags("LN"), "Error building notification " + id, ex);
+                    storage.deleteNotification(Integer.toString(id));
+                    continue;
+                }
+                notification.when = now;
+                LocalNotificationsPlugin.fireReceived(storage.getSavedNotificationAsJSObject(Integer.toString(id)));
+                getNotificationManager().notify(id, notification);
+
+                DateMatch on = localNotification.getSchedule() != null ? localNotification.getSchedule().getOn() : null;
+                // from the due time, so a notification fired early is not queued again for the same time
+                long trigger = on != null ? on.nextTrigger(new Date(Math.max(now, due.getValue()))) : -1;
+                if (trigger >= 0) {
+                    queue.add(id, trigger);
+                } else {
+                    storage.deleteNotification(Integer.toString(id));
+                }
+            }
+        });
+    }
+
+    /**
+     * Build the notifications
+     *
+     * @return the notifications in the same order, null for the ones that could not be built
+     */
+    private List<Notification> buildNotifications(List<LocalNotification> localNotifications, PluginCall call) {
+        List<Notification> notifications = new ArrayList<>(localNotifications.size());
+        for (LocalNotification localNotification : localNotifications) {
+            notifications.add(buildNotification(localNotification, call));
+        }
+        return notifications;
+    }
+
+    private Notification buildNotification(LocalNotification localNotification, PluginCall call) {
+        try {
+            return buildNotificationOrThrow(localNotification);
+        } catch (IllegalArgumentException ex) {
+            rejectInvalidColor(call);
+            return null;
+        }
+    }
+
+    private void rejectInvalidColor(PluginCall call) {
+        if (call != null) {
+            call.reject("Invalid color provided. Must be a hex string (ex: #ff0000");
+        }
+    }
+
     // TODO Progressbar support
     // TODO System categories (DO_NOT_DISTURB etc.)
     // TODO control visibility by flag Notification.VISIBILITY_PRIVATE
@@ -205,7 +356,12 @@ public class LocalNotificationManager {
     // TODO expandable notification NotificationCompat.MessagingStyle
     // TODO media style notification support NotificationCompat.MediaStyle
     // TODO custom small/large icons
-    private void buildNotification(NotificationManagerCompat notificationManager, LocalNotification localNotification, PluginCall call) {
+    /**
+     * Build a notification, without showing or scheduling it.
+     *
+     * @throws IllegalArgumentException if the icon color is invalid
+     */
+    private Notification buildNotificationOrThrow(LocalNotification localNotification) {
         String channelId = DEFAULT_NOTIFICATION_CHANNEL_ID;
         if (localNotification.getChannelId() != null) {
             channelId = localNotification.getChannelId();
@@ -282,19 +438,15 @@ public class LocalNotificationManager {
 
         String iconColor = localNotification.getIconColor(config.getString("iconColor"));
         if (iconColor != null) {
-            try {
-                mBuilder.setColor(Color.parseColor(iconColor));
-            } catch (IllegalArgumentException ex) {
-                if (call != null) {
-                    call.reject("Invalid color provided. Must be a hex string (ex: #ff0000");
-                }
-                return;
-            }
+            mBuilder.setColor(Color.parseColor(iconColor));
         }
 
         createActionIntents(localNotification, mBuilder);
+        return mBuilder.build();
+    }
+
+    private void postNotification(NotificationManagerCompat notificationManager, Notification buildNotification, LocalNotification localNotification) {
         // notificationId is a unique int for each localNotification that you must define
-        Notification buildNotification = mBuilder.build();
         if (localNotification.isScheduled()) {
             triggerScheduledNotification(buildNotification, localNotification);
         } else {
@@ -401,7 +553,7 @@ public class LocalNotificationManager {
      */
     // TODO support different AlarmManager.RTC modes depending on priority
     private void triggerScheduledNotification(Notification notification, LocalNotification request) {
-        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        AlarmManager alarmManager = getAlarmManager();
         LocalNotificationSchedule schedule = request.getSchedule();
         Intent notificationIntent = new Intent(context, TimedNotificationPublisher.class);
         notificationIntent.putExtra(NOTIFICATION_INTENT_KEY, request.getId());
@@ -443,6 +595,10 @@ public class LocalNotificationManager {
         DateMatch on = schedule.getOn();
         if (on != null) {
             long trigger = on.nextTrigger(new Date());
+            if (trigger < 0) {
+                Logger.error(Logger.tags("LN"), "Notification " + request.getId() + " never matches its schedule", null);
+                return;
+            }
             notificationIntent.putExtra(TimedNotificationPublisher.CRON_KEY, on.toMatchString());
             pendingIntent = PendingIntent.getBroadcast(context, request.getId(), notificationIntent, flags);
             setExactIfPossible(alarmManager, schedule, trigger, pendingIntent);
@@ -496,11 +652,20 @@ public class LocalNotificationManager {
     public void cancel(PluginCall call) {
         List<Integer> notificationsToCancel = LocalNotification.getLocalNotificationPendingList(call);
         if (notificationsToCancel != null) {
+            List<String> ids = new ArrayList<>(notificationsToCancel.size());
             for (Integer id : notificationsToCancel) {
                 Logger.debug(Logger.tags("LN"), "Canceling notification with id: " + id);
                 dismissVisibleNotification(id);
                 cancelTimerForNotification(id);
-                storage.deleteNotification(Integer.toString(id));
+                ids.add(Integer.toString(id));
+            }
+            storage.deleteNotifications(ids);
+            if (coalesceAlarms) {
+                NotificationAlarmQueue.update(context, (queue) -> {
+                    for (Integer id : notificationsToCancel) {
+                        queue.remove(id);
+                    }
+                });
             }
         }
         call.resolve();
@@ -514,20 +679,42 @@ public class LocalNotificationManager {
         }
         PendingIntent pi = PendingIntent.getBroadcast(context, notificationId, intent, flags);
         if (pi != null) {
-            AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-            alarmManager.cancel(pi);
+            getAlarmManager().cancel(pi);
         }
     }
 
     private void dismissVisibleNotification(int notificationId) {
         Logger.debug(Logger.tags("LN"), "Dismissing notification with id (if visible): " + notificationId);
-        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(this.context);
-        notificationManager.cancel(notificationId);
+        getNotificationManager().cancel(notificationId);
+    }
+
+    private Set<Integer> getVisibleNotificationIds() {
+        Set<Integer> ids = new HashSet<>();
+        android.app.NotificationManager manager = context.getSystemService(android.app.NotificationManager.class);
+        if (manager != null) {
+            for (StatusBarNotification notification : manager.getActiveNotifications()) {
+                ids.add(notification.getId());
+            }
+        }
+        return ids;
     }
 
     public boolean areNotificationsEnabled() {
-        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(context);
-        return notificationManager.areNotificationsEnabled();
+        return getNotificationManager().areNotificationsEnabled();
+    }
+
+    private NotificationManagerCompat getNotificationManager() {
+        if (notificationManager == null) {
+            notificationManager = NotificationManagerCompat.from(context);
+        }
+        return notificationManager;
+    }
+
+    private AlarmManager getAlarmManager() {
+        if (alarmManager == null) {
+            alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        }
+        return alarmManager;
     }
 
     public Uri getDefaultSoundUrl(Context context) {
@@ -172,7 +172,7 @@ public class LocalNotificationSchedule {
      * Get next trigger time based on calendar and current time
      *
      * @param currentTime - current time that will be used to calculate next trigger
-     * @return millisecond trigger
+     * @return millisecond trigger, or -1 if the schedule never matches again
      */
     public Long getNextOnSchedule(Date currentTime) {
         return this.on.nextTrigger(currentTime);
@@ -0,0 +1,178 @@
+package com.capacitorjs.plugins.localnotifications;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Build;
+import com.getcapacitor.Logger;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Queue of the trigger times of scheduled notifications, used when alarms are coalesced.
+ * The queue is persisted in its own preferences and kept in a min-heap, and only a single
+ * alarm, for the earliest trigger, is registered with AlarmManager. When it goes off,
+ * {@link TimedNotificationPublisher} fires every notification due within the coalescing
+ * window and re-arms the alarm for the next one.
+ *
+ * Changes are only persisted and the alarm is only re-armed by {@link #commit()}, so a batch
+ * of changes costs a single write and a single AlarmManager call.
+ */
+public class NotificationAlarmQueue {
+
+    // Action of the queue alarm, so its PendingIntent never matches the one of a notification
+    public static final String ACTION_ALARM = "com.capacitorjs.plugins.localnotifications.ALARM_QUEUE";
+
+    // Key for private preferences
+    private static final String ALARM_QUEUE_ID = "NOTIFICATION_ALARM_QUEUE";
+
+    // Serializes the read-modify-write of the queue between the plugin and the receivers
+    private static final Object lock = new Object();
+
+    private final Context context;
+    private final Map<String, Long> triggers = new HashMap<>();
+    private final Map<String, Long> changes = new HashMap<>();
+    private final PriorityQueue<Trigger> heap = new PriorityQueue<>();
+
+    private NotificationAlarmQueue(Context context) {
+        this.context = context;
+        Map<String, ?> all = getStorage().getAll();
+        for (Map.Entry<String, ?> entry : all.entrySet()) {
+            if (entry.getValue() instanceof Long) {
+                long at = (Long) entry.getValue();
+                triggers.put(entry.getKey(), at);
+                heap.add(new Trigger(entry.getKey(), at));
+            }
+        }
+    }
+
+    /**
+     * Run an update of the queue, loading it first and committing it afterwards
+     */
+    public static void update(Context context, Update update) {
+        synchronized (lock) {
+            NotificationAlarmQueue queue = new NotificationAlarmQueue(context);
+            update.apply(queue);
+            queue.commit();
+        }
+    }
+
+    /**
+     * Add a notification to the queue, replacing its previous trigger time if any
+     */
+    public void add(int id, long at) {
+        String key = Integer.toString(id);
+        triggers.put(key, at);
+        changes.put(key, at);
+        heap.add(new Trigger(key, at));
+    }
+
+    public void remove(int id) {
+        String key = Integer.toString(id);
+        if (triggers.remove(key) != null) {
+            changes.put(key, null);
+        }
+    }
+
+    /**
+     * Remove every notification due at the given time or earlier from the queue
+     *
+     * @return map of the ids of the due notifications to their trigger times, earliest first
+     */
+    public Map<Integer, Long> pollDue(long until) {
+        Map<Integer, Long> due = new LinkedHashMap<>();
+        Trigger next;
+        while ((next = peek()) != null && next.at <= until) {
+            heap.poll();
+            triggers.remove(next.id);
+            changes.put(next.id, null);
+            due.put(Integer.parseInt(next.id), next.at);
+        }
+        return due;
+    }
+
+    /**
+     * Persist the changes and arm the alarm for the earliest trigger, or cancel it if the
+     * queue is empty
+     */
+    private void commit() {
+        if (!changes.isEmpty()) {
+            SharedPreferences.Editor editor = getStorage().edit();
+            for (Map.Entry<String, Long> change : changes.entrySet()) {
+                if (change.getValue() != null) {
+                    editor.putLong(change.getKey(), change.getValue());
+                } else {
+                    editor.remove(change.getKey());
+                }
+            }
+            editor.apply();
+            changes.clear();
+        }
+
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        Trigger next = peek();
+        if (next == null) {
+            alarmManager.cancel(getAlarmIntent());
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && !alarmManager.canScheduleExactAlarms()) {
+            alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, next.at, getAlarmIntent());
+        } else {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, next.at, getAlarmIntent());
+        }
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
+        Logger.debug(Logger.tags("LN"), "notification alarm queue will next fire at " + sdf.format(new Date(next.at)));
+    }
+
+    /**
+     * Get the earliest trigger, dropping the heap entries that were removed or replaced
+     */
+    private Trigger peek() {
+        Trigger next = heap.peek();
+        while (next != null && !Long.valueOf(next.at).equals(triggers.get(next.id))) {
+            heap.poll();
+            next = heap.peek();
+        }
+        return next;
+    }
+
+    private PendingIntent getAlarmIntent() {
+        Intent intent = new Intent(context, TimedNotificationPublisher.class);
+        intent.setAction(ACTION_ALARM);
+        int flags = PendingIntent.FLAG_UPDATE_CURRENT;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            flags = flags | PendingIntent.FLAG_IMMUTABLE;
+        }
+        return PendingIntent.getBroadcast(context, 0, intent, flags);
+    }
+
+    private SharedPreferences getStorage() {
+        return context.getSharedPreferences(ALARM_QUEUE_ID, Context.MODE_PRIVATE);
+    }
+
+    public interface Update {
+        void apply(NotificationAlarmQueue queue);
+    }
+
+    private static class Trigger implements Comparable<Trigger> {
+
+        private final String id;
+        private final long at;
+
+        Trigger(String id, long at) {
+            this.id = id;
+            this.at = at;
+        }
+
+        @Override
+        public int compareTo(Trigger other) {
+            return Long.compare(at, other.at);
+        }
+    }
+}
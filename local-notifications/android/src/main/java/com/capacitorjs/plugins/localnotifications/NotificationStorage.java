@@ -3,8 +3,13 @@ package com.capacitorjs.plugins.localnotifications;
 import android.content.Context;
 import android.content.SharedPreferences;
 import com.getcapacitor.JSObject;
+import com.getcapacitor.Logger;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -15,64 +20,114 @@ import org.json.JSONException;
  */
 public class NotificationStorage {
 
-    // Key for private preferences
+    // Key for private preferences, where notifications were stored before the notification store
     private static final String NOTIFICATION_STORE_ID = "NOTIFICATION_STORE";
 
     // Key used to save action types
     private static final String ACTION_TYPES_ID = "ACTION_TYPE_STORE";
 
-    private static final String ID_KEY = "notificationIds";
+    // Max number of parsed notifications kept in memory
+    private static final int MAX_CACHED_NOTIFICATIONS = 256;
+
+    private static NotificationStore defaultStore;
+
+    // Parsed notifications of the default store, shared by the plugin and the receivers
+    private static final ParsedNotificationCache defaultCache = new ParsedNotificationCache(MAX_CACHED_NOTIFICATIONS);
 
     private Context context;
+    private NotificationStore store;
+    private ParsedNotificationCache cache;
 
     public NotificationStorage(Context context) {
+        this(context, getDefaultStore(context), defaultCache);
+    }
+
+    public NotificationStorage(Context context, NotificationStore store) {
+        this(context, store, new ParsedNotificationCache(MAX_CACHED_NOTIFICATIONS));
+    }
+
+    private NotificationStorage(Context context, NotificationStore store, ParsedNotificationCache cache) {
         this.context = context;
+        this.store = store;
+        this.cache = cache;
+    }
+
+    /**
+     * Replace the store used by storages created without one, e.g. from the Application
+     * so that the alarm and boot receivers use it too. Notifications saved in the
+     * previous store are not copied over.
+     */
+    public static synchronized void setDefaultStore(NotificationStore store) {
+        defaultStore = store;
+        defaultCache.clear();
+    }
+
+    /**
+     * Get the process-wide store, opening the SQLite store and moving the notifications
+     * left in the preferences by previous versions into it the first time
+     */
+    private static synchronized NotificationStore getDefaultStore(Context context) {
+        if (defaultStore == null) {
+            NotificationStore store = new SQLiteNotificationStore(context);
+            migrateFromPreferences(context, store);
+            defaultStore = store;
+        }
+        return defaultStore;
+    }
+
+    private static void migrateFromPreferences(Context context, NotificationStore store) {
+        SharedPreferences preferences = context.getSharedPreferences(NOTIFICATION_STORE_ID, Context.MODE_PRIVATE);
+        Map<String, ?> all = preferences.getAll();
+        if (all == null || all.isEmpty()) {
+            return;
+        }
+        Map<String, String> notifications = new HashMap<>();
+        for (Map.Entry<String, ?> entry : all.entrySet()) {
+            if (entry.getValue() instanceof String) {
+                notifications.put(entry.getKey(), (String) entry.getValue());
+            }
+        }
+        store.put(notifications);
+        // only clear once the notifications are safely stored, so a failed migration is retried
+        preferences.edit().clear().commit();
+        Logger.debug(Logger.tags("LN"), "Migrated " + notifications.size() + " notifications to the notification store");
     }
 
     /**
      * Persist the id of currently scheduled notification
      */
     public void appendNotifications(List<LocalNotification> localNotifications) {
-        SharedPreferences storage = getStorage(NOTIFICATION_STORE_ID);
-        SharedPreferences.Editor editor = storage.edit();
+        Map<String, String> notifications = new LinkedHashMap<>();
         for (LocalNotification request : localNotifications) {
             if (request.isScheduled()) {
-                String key = request.getId().toString();
-                editor.putString(key, request.getSource());
+                notifications.put(request.getId().toString(), request.getSource());
             }
         }
-        editor.apply();
+        store.put(notifications);
+        cache.invalidate(notifications.keySet());
     }
 
     public List<String> getSavedNotificationIds() {
-        SharedPreferences storage = getStorage(NOTIFICATION_STORE_ID);
-        Map<String, ?> all = storage.getAll();
-        if (all != null) {
-            return new ArrayList<>(all.keySet());
-        }
-        return new ArrayList<>();
+        return store.getIds();
     }
 
     public List<LocalNotification> getSavedNotifications() {
-        SharedPreferences storage = getStorage(NOTIFICATION_STORE_ID);
-        Map<String, ?> all = storage.getAll();
-        if (all != null) {
-            ArrayList<LocalNotification> notifications = new ArrayList<>();
-            for (String key : all.keySet()) {
-                String notificationString = (String) all.get(key);
-                JSObject jsNotification = getNotificationFromJSONString(notificationString);
-                if (jsNotification != null) {
-                    try {
-                        LocalNotification notification = LocalNotification.buildNotificationFromJSObject(jsNotification);
-                        notifications.add(notification);
-                    } catch (ParseException ex) {}
+        ArrayList<LocalNotification> notifications = new ArrayList<>();
+        for (Map.Entry<String, String> entry : store.getAll().entrySet()) {
+            try {
+                // only use the cache, parsing every notification into it would evict the hot ones
+                LocalNotification notification = cache.getNotification(entry.getKey());
+                if (notification == null) {
+                    JSObject jsNotification = getNotificationFromJSONString(entry.getValue());
+                    if (jsNotification == null) {
+                        continue;
+                    }
+                    notification = LocalNotification.buildNotificationFromJSObject(jsNotification);
                 }
-            }
-
-            return notifications;
+                notifications.add(notification);
+            } catch (ParseException ex) {}
         }
-
-        return new ArrayList<>();
+        return notifications;
     }
 
     public JSObject getNotificationFromJSONString(String notificationString) {
@@ -90,29 +145,26 @@ public class NotificationStorage {
         return jsNotification;
     }
 
+    /**
+     * Get a stored notification as JSON. The object may be shared with other callers
+     * and must not be modified.
+     */
     public JSObject getSavedNotificationAsJSObject(String key) {
-        SharedPreferences storage = getStorage(NOTIFICATION_STORE_ID);
-        String notificationString;
-        try {
-            notificationString = storage.getString(key, null);
-        } catch (ClassCastException ex) {
-            return null;
-        }
-
-        if (notificationString == null) {
-            return null;
-        }
-
-        JSObject jsNotification;
-        try {
-            jsNotification = new JSObject(notificationString);
-        } catch (JSONException ex) {
-            return null;
+        JSObject jsNotification = cache.getJSObject(key);
+        if (jsNotification == null) {
+            long generation = cache.getGeneration();
+            jsNotification = getNotificationFromJSONString(store.get(key));
+            if (jsNotification != null) {
+                cache.put(key, jsNotification, generation);
+            }
         }
-
         return jsNotification;
     }
 
+    /**
+     * Get a stored notification. The notification may be shared with other callers,
+     * so it must be saved again with {@link #appendNotifications(List)} after modifying it.
+     */
     public LocalNotification getSavedNotification(String key) {
         JSObject jsNotification = getSavedNotificationAsJSObject(key);
         if (jsNotification == null) {
@@ -121,7 +173,11 @@ public class NotificationStorage {
 
         LocalNotification notification;
         try {
-            notification = LocalNotification.buildNotificationFromJSObject(jsNotification);
+            notification = cache.getNotification(key);
+            if (notification == null) {
+                // not cached, or invalidated in the meantime
+                notification = LocalNotification.buildNotificationFromJSObject(jsNotification);
+            }
         } catch (ParseException ex) {
             return null;
         }
@@ -133,9 +189,17 @@ public class NotificationStorage {
      * Remove the stored notifications
      */
     public void deleteNotification(String id) {
-        SharedPreferences.Editor editor = getStorage(NOTIFICATION_STORE_ID).edit();
-        editor.remove(id);
-        editor.apply();
+        List<String> ids = Collections.singletonList(id);
+        store.delete(ids);
+        cache.invalidate(ids);
+    }
+
+    /**
+     * Remove several stored notifications at once
+     */
+    public void deleteNotifications(Collection<String> ids) {
+        store.delete(ids);
+        cache.invalidate(ids);
     }
 
     /**
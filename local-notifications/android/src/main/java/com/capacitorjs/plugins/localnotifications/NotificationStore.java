@@ -0,0 +1,37 @@
+package com.capacitorjs.plugins.localnotifications;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backend persisting the JSON source of scheduled notifications, keyed by notification id.
+ * Batch operations must be applied atomically, so a batch is either fully stored or not at all.
+ */
+public interface NotificationStore {
+    /**
+     * Insert or replace notifications in a single transaction
+     *
+     * @param notifications - map of notification id to its JSON source
+     */
+    void put(Map<String, String> notifications);
+
+    /**
+     * Look up the JSON source of a single notification
+     *
+     * @return the JSON source, or null if there is no notification with this id
+     */
+    String get(String id);
+
+    List<String> getIds();
+
+    /**
+     * @return map of notification id to its JSON source for every stored notification
+     */
+    Map<String, String> getAll();
+
+    /**
+     * Delete notifications in a single transaction, ignoring ids that are not stored
+     */
+    void delete(Collection<String> ids);
+}
@@ -0,0 +1,76 @@
+package com.capacitorjs.plugins.localnotifications;
+
+import com.getcapacitor.JSObject;
+import java.text.ParseException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of parsed stored notifications, keyed by notification id and evicting the
+ * least recently used ones first. The cached JSON objects are shared between callers, so they
+ * must not be modified; entries have to be invalidated whenever the stored notification
+ * changes.
+ */
+class ParsedNotificationCache {
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, JSObject> entries;
+    // incremented on every invalidation, so values read from the store before it are not cached
+    private long generation = 0;
+
+    ParsedNotificationCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JSObject> eldest) {
+                return size() > ParsedNotificationCache.this.maxEntries;
+            }
+        };
+    }
+
+    synchronized JSObject getJSObject(String id) {
+        return entries.get(id);
+    }
+
+    /**
+     * Get a notification built from a cached JSON object. Every call builds a new one, so the
+     * caller may modify it without affecting later reads
+     *
+     * @return the notification, or null if the id is not cached
+     */
+    LocalNotification getNotification(String id) throws ParseException {
+        JSObject json = getJSObject(id);
+        if (json == null) {
+            return null;
+        }
+        return LocalNotification.buildNotificationFromJSObject(json);
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Cache a notification read from the store, unless the cache was invalidated since
+     *
+     * @param generation - the generation returned before reading the notification from the store
+     */
+    synchronized void put(String id, JSObject json, long generation) {
+        if (generation == this.generation) {
+            entries.put(id, json);
+        }
+    }
+
+    synchronized void invalidate(Collection<String> ids) {
+        generation++;
+        for (String id : ids) {
+            entries.remove(id);
+        }
+    }
+
+    synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+}
@@ -0,0 +1,136 @@
+package com.capacitorjs.plugins.localnotifications;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Notification store backed by a single SQLite table indexed by notification id, so single
+ * notifications can be looked up without reading the others and every write only touches
+ * the rows that changed.
+ */
+public class SQLiteNotificationStore extends SQLiteOpenHelper implements NotificationStore {
+
+    private static final String DATABASE_NAME = "capacitor_local_notifications.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE_NOTIFICATIONS = "notifications";
+    private static final String COLUMN_ID = "id";
+    private static final String COLUMN_SOURCE = "source";
+
+    public SQLiteNotificationStore(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // readers, e.g. the alarm receivers, don't wait for a batch write to finish
+        db.enableWriteAheadLogging();
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_NOTIFICATIONS + " (" + COLUMN_ID + " TEXT PRIMARY KEY, " + COLUMN_SOURCE + " TEXT NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {}
+
+    @Override
+    public void put(Map<String, String> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try (
+            SQLiteStatement statement = db.compileStatement(
+                "INSERT OR REPLACE INTO " + TABLE_NOTIFICATIONS + " (" + COLUMN_ID + ", " + COLUMN_SOURCE + ") VALUES (?, ?)"
+            )
+        ) {
+            for (Map.Entry<String, String> notification : notifications.entrySet()) {
+                statement.bindString(1, notification.getKey());
+                statement.bindString(2, notification.getValue());
+                statement.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @Override
+    public String get(String id) {
+        try (
+            Cursor cursor = getReadableDatabase().query(
+                TABLE_NOTIFICATIONS,
+                new String[] { COLUMN_SOURCE },
+                COLUMN_ID + " = ?",
+                new String[] { id },
+                null,
+                null,
+                null
+            )
+        ) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+
+    @Override
+    public List<String> getIds() {
+        List<String> ids = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_NOTIFICATIONS, new String[] { COLUMN_ID }, null, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getString(0));
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public Map<String, String> getAll() {
+        Map<String, String> notifications = new HashMap<>();
+        try (
+            Cursor cursor = getReadableDatabase().query(
+                TABLE_NOTIFICATIONS,
+                new String[] { COLUMN_ID, COLUMN_SOURCE },
+                null,
+                null,
+                null,
+                null,
+                null
+            )
+        ) {
+            while (cursor.moveToNext()) {
+                notifications.put(cursor.getString(0), cursor.getString(1));
+            }
+        }
+        return notifications;
+    }
+
+    @Override
+    public void delete(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try (SQLiteStatement statement = db.compileStatement("DELETE FROM " + TABLE_NOTIFICATIONS + " WHERE " + COLUMN_ID + " = ?")) {
+            for (String id : ids) {
+                statement.bindString(1, id);
+                statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+}
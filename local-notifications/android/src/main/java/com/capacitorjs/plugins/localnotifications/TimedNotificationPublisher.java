@@ -8,6 +8,7 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
+import com.getcapacitor.CapConfig;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Logger;
 import java.text.SimpleDateFormat;
@@ -27,6 +28,13 @@ public class TimedNotificationPublisher extends BroadcastReceiver {
      */
     @Override
     public void onReceive(Context context, Intent intent) {
+        if (NotificationAlarmQueue.ACTION_ALARM.equals(intent.getAction())) {
+            NotificationStorage storage = new NotificationStorage(context);
+            CapConfig capConfig = CapConfig.loadDefault(context);
+            new LocalNotificationManager(storage, null, context, capConfig).fireQueuedNotifications();
+            return;
+        }
+
         NotificationManager notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
 
         Notification notification;
@@ -65,6 +73,9 @@ public class TimedNotificationPublisher extends BroadcastReceiver {
             AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
 
             long trigger = date.nextTrigger(new Date());
+            if (trigger < 0) {
+                return false;
+            }
             Intent clone = (Intent) intent.clone();
             int flags = PendingIntent.FLAG_CANCEL_CURRENT;
             if (android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
@@ -0,0 +1,257 @@
+package com.capacitorjs.plugins.localnotifications;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.Test;
+
+/**
+ * Compares {@link DateMatcher} with a scan of every second, done with java.time instead of
+ * Calendar, around daylight saving time transitions, month ends, leap days and dates that
+ * never happen.
+ */
+public class DateMatcherTest {
+
+    private static final String[] ZONES = { "America/New_York", "Europe/London", "Australia/Lord_Howe", "UTC" };
+
+    // The scan gives up after this many years, longer than the gap between two leap days
+    private static final int SCAN_YEARS = 9;
+
+    private static final String[] START_TIMES = {
+        // daylight saving time starts and ends in New York, London and Lord Howe
+        "2026-03-08T01:58:00",
+        "2026-11-01T00:58:59",
+        "2026-11-01T01:58:00",
+        "2026-03-29T00:59:30",
+        "2026-10-25T01:30:00",
+        "2026-04-05T01:45:00",
+        "2026-10-04T01:59:59",
+        // month and year ends, leap days
+        "2026-01-31T23:59:59",
+        "2026-02-28T23:00:00",
+        "2026-04-30T12:00:00",
+        "2026-12-31T23:59:30",
+        "2028-02-28T23:59:59",
+        "2028-02-29T12:00:00",
+        "2096-02-29T00:00:01",
+    };
+
+    @Test
+    public void secondMatchesTheFirstOccurrenceOfARepeatedMinute() {
+        TimeZone timeZone = TimeZone.getTimeZone("America/New_York");
+        DateMatch match = new DateMatch();
+        match.setSecond(30);
+        long from = instant("2026-11-01T01:58:00-04:00");
+
+        assertEquals(instant("2026-11-01T01:58:30-04:00"), new DateMatcher(match).next(from, timeZone));
+    }
+
+    @Test
+    public void minuteMatchesBothOccurrencesOfARepeatedHour() {
+        TimeZone timeZone = TimeZone.getTimeZone("America/New_York");
+        DateMatch match = new DateMatch();
+        match.setMinute(59);
+        long from = instant("2026-11-01T01:00:00-04:00");
+
+        List<Long> triggers = new DateMatcher(match).next(from, 3, timeZone);
+
+        assertEquals(instant("2026-11-01T01:59:00-04:00"), (long) triggers.get(0));
+        assertEquals(instant("2026-11-01T01:59:00-05:00"), (long) triggers.get(1));
+        assertEquals(instant("2026-11-01T02:59:00-05:00"), (long) triggers.get(2));
+    }
+
+    @Test
+    public void hourMatchesTheFirstOccurrenceOfARepeatedHour() {
+        TimeZone timeZone = TimeZone.getTimeZone("America/New_York");
+        DateMatch match = new DateMatch();
+        match.setHour(1);
+        long from = instant("2026-11-01T00:30:00-04:00");
+
+        assertEquals(instant("2026-11-01T01:00:00-04:00"), new DateMatcher(match).next(from, timeZone));
+    }
+
+    @Test
+    public void hourSkippedByDaylightSavingTimeMatchesTheNextDay() {
+        TimeZone timeZone = TimeZone.getTimeZone("America/New_York");
+        DateMatch match = new DateMatch();
+        match.setHour(2);
+        long from = instant("2026-03-08T00:00:00-05:00");
+
+        assertEquals(instant("2026-03-09T02:00:00-04:00"), new DateMatcher(match).next(from, timeZone));
+    }
+
+    @Test
+    public void leapDayMatchesTheNextLeapYear() {
+        TimeZone timeZone = TimeZone.getTimeZone("UTC");
+        DateMatch match = new DateMatch();
+        match.setMonth(Calendar.FEBRUARY);
+        match.setDay(29);
+        long from = instant("2097-01-01T00:00:00Z");
+
+        // 2100 is not a leap year
+        assertEquals(instant("2104-02-29T00:00:00Z"), new DateMatcher(match).next(from, timeZone));
+    }
+
+    @Test
+    public void impossibleDatesNeverMatch() {
+        TimeZone timeZone = TimeZone.getTimeZone("UTC");
+        long from = instant("2026-01-01T00:00:00Z");
+
+        DateMatch february30 = new DateMatch();
+        february30.setMonth(Calendar.FEBRUARY);
+        february30.setDay(30);
+        assertEquals(-1, new DateMatcher(february30).next(from, timeZone));
+
+        DateMatch hour24 = new DateMatch();
+        hour24.setHour(24);
+        assertEquals(-1, new DateMatcher(hour24).next(from, timeZone));
+
+        DateMatch pastYear = new DateMatch();
+        pastYear.setYear(2025);
+        assertEquals(-1, new DateMatcher(pastYear).next(from, timeZone));
+    }
+
+    @Test
+    public void nextMatchesScanAroundDaylightSavingTimeAndMonthEnds() {
+        Random random = new Random(42);
+        for (String zone : ZONES) {
+            TimeZone timeZone = TimeZone.getTimeZone(zone);
+            ZoneId zoneId = ZoneId.of(zone);
+            for (String startTime : START_TIMES) {
+                long from = LocalDateTime.parse(startTime).atZone(zoneId).toInstant().toEpochMilli();
+                for (int i = 0; i < 12; i++) {
+                    DateMatch match = randomMatch(random, from, zoneId);
+                    long expected = scan(match, from, zoneId);
+                    long actual = new DateMatcher(match).next(from, timeZone);
+                    String message = match + " from " + startTime + " in " + zone;
+                    if (expected < 0) {
+                        assertTrue(message + " matched " + actual, actual < 0 || actual > scanEnd(from, zoneId));
+                    } else {
+                        assertEquals(message, expected, actual);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nextTriggersMatchScanInARepeatedHour() {
+        ZoneId zoneId = ZoneId.of("America/New_York");
+        TimeZone timeZone = TimeZone.getTimeZone(zoneId);
+        long from = instant("2026-11-01T00:58:00-04:00");
+        for (int second = 0; second < 60; second += 7) {
+            DateMatch match = new DateMatch();
+            match.setSecond(second);
+            long expected = from;
+            for (long actual : new DateMatcher(match).next(from, 150, timeZone)) {
+                expected = scan(match, expected, zoneId);
+                assertEquals(match.toString(), expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Pick the fields to match, mostly near the start time so that they match soon
+     */
+    private static DateMatch randomMatch(Random random, long from, ZoneId zoneId) {
+        ZonedDateTime start = ZonedDateTime.ofInstant(Instant.ofEpochMilli(from), zoneId);
+        DateMatch match = new DateMatch();
+        if (random.nextInt(8) == 0) {
+            match.setYear(start.getYear() + random.nextInt(2));
+        }
+        if (random.nextInt(3) == 0) {
+            match.setMonth((start.getMonthValue() - 1 + random.nextInt(2)) % 12);
+        }
+        if (random.nextInt(3) == 0) {
+            // includes days some months don't have, and days no month has
+            match.setDay(random.nextBoolean() ? 28 + random.nextInt(5) : start.getDayOfMonth());
+        }
+        if (random.nextInt(4) == 0) {
+            match.setWeekday(Calendar.SUNDAY + random.nextInt(7));
+        }
+        if (random.nextInt(2) == 0) {
+            match.setHour((start.getHour() + random.nextInt(3)) % 24);
+        }
+        if (random.nextInt(2) == 0) {
+            match.setMinute(random.nextBoolean() ? 59 : random.nextInt(60));
+        }
+        if (random.nextInt(2) == 0) {
+            match.setSecond(random.nextInt(60));
+        }
+        return match;
+    }
+
+    /**
+     * Find the first matching time strictly after the given time by trying every second,
+     * skipping the days whose date doesn't match
+     *
+     * @return the matching timestamp in milliseconds, or -1 if nothing matches before the end of the scan
+     */
+    private static long scan(DateMatch match, long from, ZoneId zoneId) {
+        ZoneRules rules = zoneId.getRules();
+        long end = scanEnd(from, zoneId) / 1000;
+        long second = Math.floorDiv(from, 1000) + 1;
+        while (second <= end) {
+            Instant instant = Instant.ofEpochSecond(second);
+            LocalDateTime local = LocalDateTime.ofEpochSecond(second, 0, rules.getOffset(instant));
+            if (!matchesDate(match, local.toLocalDate())) {
+                second = local.toLocalDate().plusDays(1).atStartOfDay(zoneId).toEpochSecond();
+                continue;
+            }
+            if (matchesTime(match, local)) {
+                return second * 1000;
+            }
+            second++;
+        }
+        return -1;
+    }
+
+    private static long scanEnd(long from, ZoneId zoneId) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(from), zoneId).plusYears(SCAN_YEARS).toInstant().toEpochMilli();
+    }
+
+    private static boolean matchesDate(DateMatch match, LocalDate date) {
+        // fields smaller than the smallest field that is set match their first value
+        boolean days = match.getHour() != null || match.getMinute() != null || match.getSecond() != null;
+        days = days || match.getDay() != null || match.getWeekday() != null;
+        boolean months = days || match.getMonth() != null;
+        return (
+            matches(match.getYear(), date.getYear(), 0, true) &&
+            matches(match.getMonth(), date.getMonthValue() - 1, Calendar.JANUARY, months) &&
+            matches(match.getDay(), date.getDayOfMonth(), 1, days) &&
+            matches(match.getWeekday(), date.getDayOfWeek().getValue() % 7 + 1, Calendar.SUNDAY, true)
+        );
+    }
+
+    private static boolean matchesTime(DateMatch match, LocalDateTime time) {
+        boolean seconds = match.getSecond() != null;
+        boolean minutes = seconds || match.getMinute() != null;
+        boolean hours = minutes || match.getHour() != null;
+        return (
+            matches(match.getHour(), time.getHour(), 0, hours) &&
+            matches(match.getMinute(), time.getMinute(), 0, minutes) &&
+            matches(match.getSecond(), time.getSecond(), 0, seconds)
+        );
+    }
+
+    private static boolean matches(Integer expected, int value, int min, boolean wildcard) {
+        if (expected != null) {
+            return expected == value;
+        }
+        return wildcard || value == min;
+    }
+
+    private static long instant(String time) {
+        return OffsetDateTime.parse(time).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,101 @@
+package com.capacitorjs.plugins.localnotifications;
+
+import static org.junit.Assert.*;
+
+import com.getcapacitor.JSObject;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import org.junit.Test;
+
+public class ParsedNotificationCacheTest {
+
+    @Test
+    public void getReturnsTheCachedObject() throws Exception {
+        ParsedNotificationCache cache = new ParsedNotificationCache(4);
+        JSObject json = new JSObject();
+        cache.put("1", json, cache.getGeneration());
+
+        assertSame(json, cache.getJSObject("1"));
+        assertNull(cache.getJSObject("2"));
+        assertNull(cache.getNotification("2"));
+    }
+
+    @Test
+    public void modifyingAReturnedNotificationDoesNotChangeLaterReads() throws Exception {
+        ParsedNotificationCache cache = new ParsedNotificationCache(4);
+        JSObject schedule = new JSObject();
+        schedule.put("at", "2024-01-01T08:00:00.000Z");
+        JSObject json = new JSObject();
+        json.put("id", 1);
+        json.put("title", "Reminder");
+        json.put("schedule", schedule);
+        cache.put("1", json, cache.getGeneration());
+        Date at = DateTimeUtil.parseJsDateTime("2024-01-01T08:00:00.000Z");
+
+        LocalNotification notification = cache.getNotification("1");
+        notification.getSchedule().setAt(new Date(at.getTime() + 15 * 1000));
+        notification.setTitle("Changed");
+
+        LocalNotification reread = cache.getNotification("1");
+        assertNotSame(notification, reread);
+        assertEquals(at, reread.getSchedule().getAt());
+        assertEquals("Reminder", reread.getTitle());
+    }
+
+    @Test
+    public void putEvictsTheLeastRecentlyUsedEntries() {
+        ParsedNotificationCache cache = new ParsedNotificationCache(2);
+        cache.put("1", new JSObject(), cache.getGeneration());
+        cache.put("2", new JSObject(), cache.getGeneration());
+        cache.getJSObject("1");
+        cache.put("3", new JSObject(), cache.getGeneration());
+
+        assertNotNull(cache.getJSObject("1"));
+        assertNull(cache.getJSObject("2"));
+        assertNotNull(cache.getJSObject("3"));
+    }
+
+    @Test
+    public void invalidateRemovesTheChangedEntries() {
+        ParsedNotificationCache cache = new ParsedNotificationCache(4);
+        cache.put("1", new JSObject(), cache.getGeneration());
+        cache.put("2", new JSObject(), cache.getGeneration());
+        cache.put("3", new JSObject(), cache.getGeneration());
+
+        cache.invalidate(Arrays.asList("1", "3"));
+
+        assertNull(cache.getJSObject("1"));
+        assertNotNull(cache.getJSObject("2"));
+        assertNull(cache.getJSObject("3"));
+    }
+
+    @Test
+    public void putSkipsValuesReadBeforeAnInvalidation() {
+        ParsedNotificationCache cache = new ParsedNotificationCache(4);
+        long generation = cache.getGeneration();
+        // another thread changes the notification while this one reads the old value
+        cache.invalidate(Collections.singletonList("1"));
+        cache.put("1", new JSObject(), generation);
+
+        assertNull(cache.getJSObject("1"));
+
+        cache.put("1", new JSObject(), cache.getGeneration());
+        assertNotNull(cache.getJSObject("1"));
+    }
+
+    @Test
+    public void clearRemovesEveryEntry() {
+        ParsedNotificationCache cache = new ParsedNotificationCache(4);
+        long generation = cache.getGeneration();
+        cache.put("1", new JSObject(), generation);
+        cache.put("2", new JSObject(), generation);
+
+        cache.clear();
+
+        assertNull(cache.getJSObject("1"));
+        assertNull(cache.getJSObject("2"));
+        cache.put("1", new JSObject(), generation);
+        assertNull(cache.getJSObject("1"));
+    }
+}
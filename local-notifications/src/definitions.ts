@@ -59,6 +59,35 @@ declare module '@capacitor/cli' {
        * @example "beep.wav"
        */
       sound?: string;
+
+      /**
+       * Register a single system alarm for all scheduled notifications instead of one
+       * per notification. Only the earliest notification gets an alarm, and when it goes
+       * off every notification due within `coalesceAlarmsWindow` is shown and the alarm is
+       * set for the next one. Recommended for apps scheduling many notifications, as
+       * Android throttles apps with many alarms.
+       *
+       * Notifications repeating with `every` or `repeats` on `at` keep their own alarm.
+       *
+       * Only available for Android.
+       *
+       * @since 8.1.0
+       * @default false
+       * @example true
+       */
+      coalesceAlarms?: boolean;
+
+      /**
+       * When `coalesceAlarms` is enabled, how many seconds early a notification may be
+       * shown to be grouped with an earlier one.
+       *
+       * Only available for Android.
+       *
+       * @since 8.1.0
+       * @default 60
+       * @example 300
+       */
+      coalesceAlarmsWindow?: number;
     };
   }
 }